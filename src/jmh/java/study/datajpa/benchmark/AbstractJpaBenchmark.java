@@ -0,0 +1,124 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 벤치마크 공통 : 임베디드 H2(in-memory)로 애플리케이션을 띄우고 같은 데이터셋을 만든다
+ *
+ * 회원 이름은 "member" + i, 나이는 i % 100, 팀은 TEAM_COUNT 개에 순서대로 배정한다.
+ */
+public abstract class AbstractJpaBenchmark {
+
+    protected static final int TEAM_COUNT = 100;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    protected ConfigurableApplicationContext context;
+    protected TransactionTemplate readOnlyTx;
+    protected TransactionTemplate tx;
+
+    @Setup
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType())
+                .profiles(profiles())
+                .run(arguments(properties()));
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        seed();
+        afterStart();
+    }
+
+    // 애플리케이션 기동 + 데이터 생성 이후 빈 조회 등
+    protected void afterStart() {
+    }
+
+    @TearDown
+    public void closeApplication() {
+        context.close();
+    }
+
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.NONE;
+    }
+
+    protected String[] profiles() {
+        return new String[0];
+    }
+
+    protected String[] properties() {
+        return new String[]{
+                "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "spring.main.banner-mode=off",
+                "logging.level.org.hibernate.SQL=warn",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "datajpa.query-count.enabled=false"
+        };
+    }
+
+    // SpringApplicationBuilder.properties()는 application.yml보다 우선순위가 낮으므로 커맨드 라인 인자로 넘긴다
+    static String[] arguments(String... properties) {
+        String[] arguments = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            arguments[i] = "--" + properties[i];
+        }
+        return arguments;
+    }
+
+    protected void seed() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Team("team" + i));
+        }
+        context.getBean(TeamRepository.class).saveAll(teams);
+
+        // 회원은 만들면서 바로 저장, 1M 건을 한 번에 메모리에 올리지 않는다
+        Iterable<Member> members = () -> new Iterator<Member>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < rows;
+            }
+
+            @Override
+            public Member next() {
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(teams.get(i % TEAM_COUNT)); // changeTeam()은 teams 컬렉션에 계속 쌓이므로 사용하지 않는다
+                i++;
+                return member;
+            }
+        };
+        context.getBean(MemberRepository.class).saveAllBatched(members, 1_000);
+    }
+
+    protected <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    protected String randomUserName() {
+        return "member" + ThreadLocalRandom.current().nextInt(rows);
+    }
+}
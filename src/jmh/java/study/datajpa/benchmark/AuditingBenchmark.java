@@ -0,0 +1,127 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.datajpa.auditing.RequestAuditorAware;
+import study.datajpa.entity.AuditListener;
+import study.datajpa.entity.Item;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * insert 경로의 auditing 비용
+ *
+ * - auditor : 호출마다 UUID 생성 vs 요청 당 한 번 조회
+ * - 값 채우기 : AuditingHandler(리플렉션) vs AuditListener(setter 직접 호출)
+ *   AuditingHandler는 아직 스프링 auditing을 쓰는 Item으로 측정한다
+ * - 회원 1,000건 batch insert 전체
+ *
+ * 여러 스레드에서 UUID.randomUUID()(SecureRandom)가 경합하는지 보려면 -t 옵션으로 스레드 수를 바꾼다
+ *
+ * ./gradlew jmh -Pjmh.args="AuditingBenchmark -p rows=10000 -t 8"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AuditingBenchmark extends AbstractJpaBenchmark {
+
+    private static final int INSERT_BATCH = 1_000;
+
+    private MemberRepository memberRepository;
+    private AuditingHandler auditingHandler;
+    private AuditListener auditListener;
+
+    private final AuditorAware<String> uuidAuditor = () -> Optional.of(UUID.randomUUID().toString());
+    private final AuditorAware<String> requestAuditor = new RequestAuditorAware();
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+        auditingHandler = context.getBean("jpaAuditingHandler", AuditingHandler.class);
+        auditListener = new AuditListener(requestAuditor, bean(Clock.class));
+    }
+
+    // 벤치마크 스레드마다 요청 하나가 처리 중인 상태
+    @State(Scope.Thread)
+    public static class Request {
+
+        @Setup(Level.Iteration)
+        public void bind() {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        }
+
+        @TearDown(Level.Iteration)
+        public void unbind() {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    // auditor
+
+    @Benchmark
+    public Optional<String> uuidAuditor() {
+        return uuidAuditor.getCurrentAuditor();
+    }
+
+    @Benchmark
+    public Optional<String> requestAuditor(Request request) {
+        return requestAuditor.getCurrentAuditor();
+    }
+
+    // 값 채우기
+
+    @Benchmark
+    public Object auditingHandlerMarkCreated() {
+        return auditingHandler.markCreated(new Item("item"));
+    }
+
+    @Benchmark
+    public Member auditListenerPrePersist(Request request) {
+        Member member = new Member("member", 10);
+        auditListener.prePersist(member);
+        return member;
+    }
+
+    // batch insert (롤백해서 데이터는 늘어나지 않는다)
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int insertBatch(Request request) {
+        return tx.execute(status -> {
+            List<Member> members = new ArrayList<>(INSERT_BATCH);
+            for (int i = 0; i < INSERT_BATCH; i++) {
+                members.add(new Member("member" + i, i % 100));
+            }
+            int saved = memberRepository.saveAllBatched(members, INSERT_BATCH);
+            status.setRollbackOnly();
+            return saved;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업 큐 (MemberRepository.claimBatch, for update skip locked) 처리량
+ *
+ * 한 번의 호출 = 트랜잭션 하나에서 batchSize 명을 잡고 처리한 뒤 커밋.
+ * 처리해도 큐에서 빠지지 않게 (age + 1) % 100 으로 바꾸므로 측정 중에 큐가 비지 않는다.
+ * 워커 수(스레드 수)를 바꿔가며 실행해서 처리량이 워커 수에 비례하는지 본다 (hikari 풀 크기까지)
+ *
+ * for t in 1 2 4 8; do ./gradlew jmh -Pjmh.args="ClaimBatchBenchmark -p rows=10000 -t $t"; done
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ClaimBatchBenchmark extends AbstractJpaBenchmark {
+
+    @Param({"10", "100"})
+    public int batchSize;
+
+    private final Specification<Member> pending = (root, query, cb) -> cb.lessThan(root.get("age"), 100);
+
+    private MemberRepository memberRepository;
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+    }
+
+    @Benchmark
+    public Integer claimAndProcess() {
+        return tx.execute(status -> {
+            List<Member> batch = memberRepository.claimBatch(pending, batchSize);
+            batch.forEach(m -> m.setAge((m.getAge() + 1) % 100));
+            return batch.size();
+        });
+    }
+}
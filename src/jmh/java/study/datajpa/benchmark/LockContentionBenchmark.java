@@ -0,0 +1,90 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.LockTimeout;
+import study.datajpa.transaction.TransactionRetryExecutor;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * N개 스레드가 같은 회원(hotRows 명)의 나이를 동시에 +1 할 때의 처리량
+ *
+ * - OPTIMISTIC : @Version, 충돌하면 TransactionRetryExecutor로 재시도
+ * - PESSIMISTIC : select for update, datajpa.lock.timeout 까지 대기
+ * - PESSIMISTIC_NOWAIT : select for update nowait, 잠겨 있으면 바로 실패 후 재시도
+ *
+ * 스레드 수는 -t 로 바꾼다
+ * ./gradlew jmh -Pjmh.args="LockContentionBenchmark -p rows=10000 -t 16"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LockContentionBenchmark extends AbstractJpaBenchmark {
+
+    public enum Strategy {
+        OPTIMISTIC, PESSIMISTIC, PESSIMISTIC_NOWAIT
+    }
+
+    @Param({"OPTIMISTIC", "PESSIMISTIC", "PESSIMISTIC_NOWAIT"})
+    public Strategy strategy;
+
+    // 경쟁하는 회원 수, 1이면 모든 스레드가 같은 row를 수정한다
+    @Param({"1", "16"})
+    public int hotRows;
+
+    private MemberRepository memberRepository;
+    private TransactionRetryExecutor retryExecutor;
+
+    @Override
+    protected String[] properties() {
+        String[] defaults = super.properties();
+        String[] properties = new String[defaults.length + 1];
+        System.arraycopy(defaults, 0, properties, 0, defaults.length);
+        properties[defaults.length] = "datajpa.retry.max-attempts=1000"; // 측정 중에 재시도 횟수 초과로 실패하지 않게
+        return properties;
+    }
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+        retryExecutor = bean(TransactionRetryExecutor.class);
+    }
+
+    @Benchmark
+    public Integer increaseAge() {
+        String userName = "member" + ThreadLocalRandom.current().nextInt(hotRows);
+        return retryExecutor.execute(status -> {
+            List<Member> members;
+            switch (strategy) {
+                case PESSIMISTIC:
+                    members = memberRepository.findLockByUserName(userName);
+                    break;
+                case PESSIMISTIC_NOWAIT:
+                    members = memberRepository.findLockByUserName(userName, LockTimeout.NO_WAIT);
+                    break;
+                default:
+                    members = memberRepository.findByUserName(userName);
+            }
+            members.forEach(m -> m.setAge(m.getAge() + 1));
+            return members.size();
+        });
+    }
+}
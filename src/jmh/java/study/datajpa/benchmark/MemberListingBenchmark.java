@@ -0,0 +1,62 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /members 목록 : 엔티티 조회 후 DTO 변환 vs DTO 직접 조회 (findMemberDtos)
+ *
+ * 요청 당 할당량은 gc 프로파일러로 확인한다 (gc.alloc.rate.norm)
+ * ./gradlew jmh -Pjmh.args="MemberListingBenchmark -p rows=10000 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MemberListingBenchmark extends AbstractJpaBenchmark {
+
+    @Param({"20", "200"})
+    public int pageSize;
+
+    private MemberRepository memberRepository;
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+    }
+
+    private PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(100), pageSize, Sort.by("userName"));
+    }
+
+    // 기존 /members : 엔티티 + 스냅샷, 팀 이름은 지연 로딩 (batch fetch)
+    @Benchmark
+    public Page<MemberDto> entityThenMap() {
+        return readOnlyTx.execute(status -> memberRepository.findAll(randomPage(), CountStrategy.CACHED)
+                                                            .map(m -> new MemberDto(m.getId(), m.getUserName(), m.getTeam() == null ? null : m.getTeam().getName())));
+    }
+
+    @Benchmark
+    public Page<MemberDto> dtoProjection() {
+        return readOnlyTx.execute(status -> memberRepository.findMemberDtos(randomPage(), CountStrategy.CACHED));
+    }
+}
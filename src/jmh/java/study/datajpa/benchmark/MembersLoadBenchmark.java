@@ -0,0 +1,86 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 클라이언트 1,000명이 회원 목록을 조회할 때의 처리량
+ *
+ * - 플랫폼 스레드(Tomcat 200) vs 가상 스레드 (datajpa.async.virtual-threads, JDK 21+ 에서만 의미가 있다)
+ * - /members (동기) vs /members/async (@Async 리포지토리)
+ *
+ * ./gradlew jmh -Pjmh.args="MembersLoadBenchmark -p rows=10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(1000)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dhttp.maxConnections=1000"})
+public class MembersLoadBenchmark extends AbstractJpaBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"/members?page=1&size=20", "/members/async?size=20"})
+    public String path;
+
+    private URL url;
+
+    @Override
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.SERVLET;
+    }
+
+    @Override
+    protected String[] properties() {
+        String[] defaults = super.properties();
+        String[] properties = new String[defaults.length + 3];
+        System.arraycopy(defaults, 0, properties, 0, defaults.length);
+        properties[defaults.length] = "server.port=0";
+        properties[defaults.length + 1] = "datajpa.async.virtual-threads=" + virtualThreads;
+        properties[defaults.length + 2] = "logging.level.org.apache.coyote=warn";
+        return properties;
+    }
+
+    @Override
+    protected void afterStart() {
+        try {
+            url = new URL("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public int members() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int status = connection.getResponseCode();
+        // keep-alive 로 커넥션을 재사용하려면 응답을 끝까지 읽어야 한다
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[8192];
+            while (body != null && body.read(buffer) != -1) {
+                // drain
+            }
+        }
+        return status;
+    }
+}
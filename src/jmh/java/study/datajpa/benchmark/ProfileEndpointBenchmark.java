@@ -0,0 +1,102 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기본 프로파일 vs high-throughput 프로파일, MemberController 엔드포인트 처리량
+ *
+ * ./gradlew jmh -Pjmh.args="ProfileEndpointBenchmark -p rows=10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dhttp.maxConnections=64"})
+public class ProfileEndpointBenchmark extends AbstractJpaBenchmark {
+
+    private static final String BENCH_URL = "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+
+    @Param({"default", "high-throughput"})
+    public String profile;
+
+    private String baseUrl;
+    private long minId;
+
+    @Override
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.SERVLET;
+    }
+
+    @Override
+    protected String[] profiles() {
+        return "default".equals(profile) ? new String[0] : new String[]{profile};
+    }
+
+    @Override
+    protected String[] properties() {
+        boolean highThroughput = "high-throughput".equals(profile);
+        return new String[]{
+                // 프로파일의 URL 옵션은 유지하고 in-memory DB만 바꾼다
+                "spring.datasource.url=" + (highThroughput ? BENCH_URL + ";QUERY_CACHE_SIZE=256" : BENCH_URL),
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                // 기본 프로파일은 application.yml 그대로 (SQL debug 로그, p6spy 로그 포함)
+                "logging.level.org.apache.coyote=warn"
+        };
+    }
+
+    @Override
+    protected void afterStart() {
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        minId = bean(MemberRepository.class).findMemberByUserName("member0").getId();
+    }
+
+    @Benchmark
+    public int memberById() throws IOException {
+        return get("/members/" + (minId + ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    public int memberPage() throws IOException {
+        return get("/members?page=" + (1 + ThreadLocalRandom.current().nextInt(100)) + "&size=20");
+    }
+
+    @Benchmark
+    public int memberKeyset() throws IOException {
+        return get("/members/keyset?size=20");
+    }
+
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[8192];
+            while (body != null && body.read(buffer) != -1) {
+                // keep-alive 재사용을 위해 끝까지 읽는다
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,163 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.UserNameOnly;
+import study.datajpa.repository.UserNameOnlyDto;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 지금 코드에 있는 조회 방식들을 같은 데이터셋에서 비교한다
+ *
+ * - 스프링 데이터 JPA(MemberRepository) vs 순수 JPA(MemberJpaRepository)
+ * - fetch join vs @EntityGraph vs 지연 로딩
+ * - 인터페이스(open) vs 클래스 vs 중첩 Projection, ProjectionCompiler
+ * - native query vs JPQL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RepositoryAccessBenchmark extends AbstractJpaBenchmark {
+
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private EntityManager em;
+    private long minId;
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+        memberJpaRepository = bean(MemberJpaRepository.class);
+        em = bean(EntityManager.class);
+        minId = memberRepository.findMemberByUserName("member0").getId(); // 시퀀스로 연속 할당된 id 범위의 시작
+    }
+
+    private long randomId() {
+        return minId + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    // 스프링 데이터 JPA vs 순수 JPA
+
+    @Benchmark
+    public Object springDataFindById() {
+        return readOnlyTx.execute(status -> memberRepository.findById(randomId()).orElse(null));
+    }
+
+    @Benchmark
+    public Object jpaRepositoryFindById() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findById(randomId()).orElse(null));
+    }
+
+    // 회원 + 팀 조회
+
+    @Benchmark
+    public void lazyTeam(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> consumeTeams(memberRepository.findByUserName(randomUserName()), bh));
+    }
+
+    @Benchmark
+    public void entityGraphTeam(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> consumeTeams(memberRepository.findEntityGraphByUserName(randomUserName()), bh));
+    }
+
+    @Benchmark
+    public void fetchJoinTeam(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> consumeTeams(
+                em.createQuery("select m from Member m left join fetch m.team where m.userName = :userName", Member.class)
+                  .setParameter("userName", randomUserName())
+                  .getResultList(), bh));
+    }
+
+    private void consumeTeams(List<Member> members, Blackhole bh) {
+        for (Member member : members) {
+            bh.consume(member.getTeam().getName());
+        }
+    }
+
+    // Projection
+
+    @Benchmark
+    public Object entityByUserName() {
+        return readOnlyTx.execute(status -> memberRepository.findByUserName(randomUserName()));
+    }
+
+    @Benchmark
+    public void interfaceProjection(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (UserNameOnly p : memberRepository.findProjectionsByUserName(randomUserName(), UserNameOnly.class)) {
+                bh.consume(p.getUserName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void classProjection(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (UserNameOnlyDto p : memberRepository.findProjectionsByUserName(randomUserName(), UserNameOnlyDto.class)) {
+                bh.consume(p.getUserName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void nestedProjection(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (NestedClosedProjection p : memberRepository.findProjectionsByUserName(randomUserName(), NestedClosedProjection.class)) {
+                bh.consume(p.getUserName());
+                bh.consume(p.getTeam().getName());
+            }
+        });
+    }
+
+    // ProjectionCompiler : 필요한 컬럼만 조회
+
+    @Benchmark
+    public void compiledInterfaceProjection(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (UserNameOnly p : memberRepository.findProjectedByUserName(randomUserName(), UserNameOnly.class)) {
+                bh.consume(p.getUserName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void compiledNestedProjection(Blackhole bh) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (NestedClosedProjection p : memberRepository.findProjectedByUserName(randomUserName(), NestedClosedProjection.class)) {
+                bh.consume(p.getUserName());
+                bh.consume(p.getTeam().getName());
+            }
+        });
+    }
+
+    // native vs JPQL
+
+    @Benchmark
+    public Object nativeQuery() {
+        return readOnlyTx.execute(status -> memberRepository.findByNativeQuery(randomUserName()));
+    }
+
+    @Benchmark
+    public Object jpqlQuery() {
+        return readOnlyTx.execute(status -> memberRepository.findMemberByUserName(randomUserName()));
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.support.CachedSpecification;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JpaSpecificationExecutor(Criteria) vs SpecificationQuerySupport(shape 별 JPQL 재사용)
+ *
+ * 호출 당 할당량은 gc 프로파일러로 확인한다 (gc.alloc.rate.norm)
+ * ./gradlew jmh -Pjmh.args="SpecificationBenchmark -p rows=10000 -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SpecificationBenchmark extends AbstractJpaBenchmark {
+
+    private MemberRepository memberRepository;
+
+    @Override
+    protected void afterStart() {
+        memberRepository = bean(MemberRepository.class);
+    }
+
+    private CachedSpecification<Member> userName() {
+        return MemberSpec.userName(randomUserName());
+    }
+
+    private CachedSpecification<Member> userNameAndTeamName() {
+        return MemberSpec.userName(randomUserName())
+                         .and(MemberSpec.teamName("team" + ThreadLocalRandom.current().nextInt(TEAM_COUNT)));
+    }
+
+    @Benchmark
+    public List<Member> criteriaUserName() {
+        return readOnlyTx.execute(status -> memberRepository.findAll(userName()));
+    }
+
+    @Benchmark
+    public List<Member> cachedUserName() {
+        return readOnlyTx.execute(status -> memberRepository.findAllCached(userName()));
+    }
+
+    @Benchmark
+    public List<Member> criteriaUserNameAndTeamName() {
+        return readOnlyTx.execute(status -> memberRepository.findAll(userNameAndTeamName()));
+    }
+
+    @Benchmark
+    public List<Member> cachedUserNameAndTeamName() {
+        return readOnlyTx.execute(status -> memberRepository.findAllCached(userNameAndTeamName()));
+    }
+}
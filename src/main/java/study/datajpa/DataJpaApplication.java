@@ -2,16 +2,24 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import study.datajpa.auditing.CachedClock;
+import study.datajpa.auditing.RequestAuditorAware;
+import study.datajpa.config.DataJpaProperties;
 
 import javax.swing.text.html.Option;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Optional;
-import java.util.UUID;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -22,7 +30,18 @@ public class DataJpaApplication {
 	@Bean
 	public AuditorAware<String> auditorProvider() {
 		// 실제로는 HttpSession, Spring Security context에서 뽑아서 등록
-		// return AuditorAware<String>
-		return () -> Optional.of(UUID.randomUUID().toString());
+		// return () -> Optional.of(UUID.randomUUID().toString());
+		return new RequestAuditorAware(); // 요청 당 한 번만 조회
+	}
+
+	// 등록일/수정일은 모두 이 시계를 사용한다 (AuditListener, AuditingEntityListener)
+	@Bean
+	public Clock clock(DataJpaProperties properties) {
+		return CachedClock.start(properties.getClock().getPrecision(), ZoneId.systemDefault());
+	}
+
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider(Clock clock) {
+		return () -> Optional.of(LocalDateTime.now(clock));
 	}
 }
@@ -0,0 +1,72 @@
+package study.datajpa.auditing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * precision 주기로 갱신되는 시계
+ *
+ * batch insert에서 엔티티마다 시간을 구하지 않고 volatile 필드만 읽는다.
+ * 등록일/수정일 용도이므로 precision 만큼의 오차는 허용한다.
+ */
+public class CachedClock extends Clock implements AutoCloseable {
+
+    private final Ticker ticker;
+    private final ZoneId zone;
+
+    private CachedClock(Ticker ticker, ZoneId zone) {
+        this.ticker = ticker;
+        this.zone = zone;
+    }
+
+    public static CachedClock start(Duration precision, ZoneId zone) {
+        return new CachedClock(new Ticker(precision), zone);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // 같은 Ticker를 공유한다
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new CachedClock(ticker, zone);
+    }
+
+    @Override
+    public long millis() {
+        return ticker.millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(ticker.millis);
+    }
+
+    @Override
+    public void close() {
+        ticker.scheduler.shutdownNow();
+    }
+
+    private static class Ticker {
+
+        private final ScheduledExecutorService scheduler;
+        private volatile long millis = System.currentTimeMillis();
+
+        Ticker(Duration precision) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cached-clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, precision.toMillis());
+            scheduler.scheduleAtFixedRate(() -> millis = System.currentTimeMillis(), period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.auditing;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * 등록자/수정자를 요청 당 한 번만 구해서 request attribute에 보관한다
+ *
+ * - 로그인 사용자(Principal)가 있으면 그 이름, 없으면 "system"
+ * - 요청 밖(배치, 테스트 등)에서는 항상 "system"
+ */
+public class RequestAuditorAware implements AuditorAware<String> {
+
+    public static final String SYSTEM = "system";
+
+    private static final String AUDITOR_ATTRIBUTE = RequestAuditorAware.class.getName() + ".AUDITOR";
+    private static final Optional<String> SYSTEM_AUDITOR = Optional.of(SYSTEM);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> getCurrentAuditor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return SYSTEM_AUDITOR;
+        }
+
+        Optional<String> auditor = (Optional<String>) attributes.getAttribute(AUDITOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (auditor == null) {
+            auditor = resolve(attributes);
+            attributes.setAttribute(AUDITOR_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return auditor;
+    }
+
+    private Optional<String> resolve(RequestAttributes attributes) {
+        if (attributes instanceof ServletRequestAttributes) {
+            Principal principal = ((ServletRequestAttributes) attributes).getRequest().getUserPrincipal();
+            if (principal != null) {
+                return Optional.of(principal.getName());
+            }
+        }
+        return SYSTEM_AUDITOR;
+    }
+}
@@ -0,0 +1,134 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 리포지토리 @Async 메서드용 executor
+ *
+ * - 기본 : 스레드 수 = Hikari 최대 커넥션 수, 큐가 차면 호출한 스레드에서 실행 (back pressure)
+ * - datajpa.async.virtual-threads=true : 요청 스레드(Tomcat)와 @Async 모두 가상 스레드 (JDK 21+, 그 외에는 기본 방식)
+ *   가상 스레드도 커넥션 수 이상 동시에 DB를 사용할 수는 없으므로 @Async 동시 실행 수는 Hikari 최대 커넥션 수로 제한한다
+ *   (넘으면 호출한 스레드가 기다린다, 커넥션 대기 시간 초과로 실패하지 않게)
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+
+    public static final String REPOSITORY_EXECUTOR = "repositoryExecutor";
+
+    @Bean(REPOSITORY_EXECUTOR)
+    public AsyncTaskExecutor repositoryExecutor(DataJpaProperties properties,
+                                                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        DataJpaProperties.Async async = properties.getAsync();
+        if (async.isVirtualThreads()) {
+            ThreadFactory virtualThreads = virtualThreadFactory("repository-");
+            if (virtualThreads != null) {
+                // 작업마다 가상 스레드 하나, 스레드 풀이 없으므로 종료할 것도 없다
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(virtualThreads);
+                executor.setConcurrencyLimit(maximumPoolSize);
+                return executor;
+            }
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("repository-");
+        executor.setCorePoolSize(maximumPoolSize);
+        executor.setMaxPoolSize(maximumPoolSize);
+        executor.setQueueCapacity(async.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    // Executor 빈을 직접 등록하면 스프링 부트의 applicationTaskExecutor가 빠지므로 다시 등록한다 (MVC 비동기 요청, 기본 @Async)
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "datajpa.async", name = "virtual-threads", havingValue = "true")
+    public VirtualThreadProtocolHandlerCustomizer virtualThreadProtocolHandlerCustomizer() {
+        return new VirtualThreadProtocolHandlerCustomizer(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Tomcat 요청 스레드를 가상 스레드로
+     * 외부에서 넣은 executor는 Tomcat이 종료하지 않으므로 컨텍스트 종료 시 직접 닫는다
+     */
+    public static class VirtualThreadProtocolHandlerCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+        private final ExecutorService virtualThreads; // JDK 21 미만이면 null
+
+        VirtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            if (virtualThreads != null) {
+                protocolHandler.setExecutor(virtualThreads);
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (virtualThreads != null) {
+                virtualThreads.shutdown();
+            }
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() (JDK 21+), sourceCompatibility 1.8 이라 리플렉션으로 호출
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.warn("virtual threads are not supported on java {}, using platform threads", System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("failed to create virtual thread executor", e);
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 0).factory() (JDK 21+), 지원하지 않으면 null
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            log.warn("virtual threads are not supported on java {}, using platform threads", System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("failed to create virtual thread factory", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * application.yml 의 datajpa.* 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa")
+public class DataJpaProperties {
+
+    private final Count count = new Count();
+    private final QueryCount queryCount = new QueryCount();
+    private final Datasource datasource = new Datasource();
+    private final Clock clock = new Clock();
+    private final Async async = new Async();
+    private final SlowQuery slowQuery = new SlowQuery();
+    private final Query query = new Query();
+    private final Schema schema = new Schema();
+    private final Lock lock = new Lock();
+    private final Retry retry = new Retry();
+
+    @Getter
+    @Setter
+    public static class Count {
+
+        // CACHED 전략에서 count 결과를 유지하는 시간
+        private Duration cacheTtl = Duration.ofSeconds(30);
+
+        // CACHED 전략에서 보관하는 최대 조건(predicate) 수
+        private int cacheMaxEntries = 1_000;
+
+        // ESTIMATED 전략에서 카운터를 DB 값으로 다시 맞추는 주기
+        private Duration estimateResyncInterval = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class QueryCount {
+
+        private boolean enabled = true;
+
+        // 요청 하나에서 허용하는 SQL 수
+        private int requestBudget = 20;
+
+        // 같은 형태의 SQL이 이 횟수 이상 실행되면 N+1로 보고 로그를 남긴다
+        private int repeatThreshold = 5;
+
+        // 예산을 넘으면 예외를 던진다 (테스트용)
+        private boolean failOnBudgetExceeded = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Datasource {
+
+        private final Replica replica = new Replica();
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        // true면 읽기 전용 트랜잭션(@ReadOnlyQuery, @Transactional(readOnly = true))을 replica로 보낸다
+        private boolean enabled = false;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+
+    @Getter
+    @Setter
+    public static class Clock {
+
+        // 등록일/수정일 시계 갱신 주기 (CachedClock)
+        private Duration precision = Duration.ofMillis(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+
+        // @Async 리포지토리 메서드 대기 큐, 스레드 수는 Hikari 최대 커넥션 수
+        private int queueCapacity = 500;
+        // JDK 21+ 에서 요청 스레드와 @Async를 가상 스레드로 실행
+        private boolean virtualThreads = false;
+    }
+
+    @Getter
+    @Setter
+    public static class SlowQuery {
+
+        private boolean enabled = true;
+        // 이 시간 이상 걸린 SQL만 수집
+        private Duration threshold = Duration.ofMillis(100);
+        // 보관할 최대 건수
+        private int capacity = 100;
+        // SELECT 실행 계획 수집
+        private boolean explain = true;
+        // EXPLAIN ANALYZE, 쿼리를 한 번 더 실행한다
+        private boolean explainAnalyze = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Query {
+
+        // in 절 파라미터 최대 개수, 넘으면 나눠서 조회한다 (InClauseSupport). 2의 거듭제곱 권장
+        private int inClauseMaxSize = 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Schema {
+
+        // 시작할 때 Flyway clean 후 migrate, 운영에서는 false
+        private boolean recreateOnStartup = false;
+        // 시작할 때 선언된 쿼리(@Query, @NamedQuery)의 실행 계획 검사
+        private boolean verifyQueryPlans = true;
+        // where 조건이 있는데 tableScan이면 시작 실패
+        private boolean failOnTableScan = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Lock {
+
+        // 비관적 락(select ... for update) 기본 대기 시간, 넘으면 PessimisticLockingFailureException
+        private Duration timeout = Duration.ofSeconds(3);
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+
+        // 첫 시도 포함 최대 실행 횟수 (TransactionRetryExecutor)
+        private int maxAttempts = 5;
+        // 재시도 대기 시간, 실패할 때마다 두 배 (최대 maxBackoff) 범위에서 랜덤
+        private Duration initialBackoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(500);
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * datajpa.datasource.replica.enabled=true 인 경우에만 primary/replica 라우팅 DataSource를 등록한다
+ * 설정하지 않으면 스프링 부트 기본 DataSource 하나만 사용한다
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                         .type(HikariDataSource.class)
+                         .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataJpaProperties properties) {
+        DataJpaProperties.Replica replica = properties.getDatasource().getReplica();
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                                                       .type(HikariDataSource.class)
+                                                       .driverClassName(replica.getDriverClassName())
+                                                       .url(replica.getUrl())
+                                                       .username(replica.getUsername())
+                                                       .password(replica.getPassword())
+                                                       .build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        targets.put(ReplicaRoutingDataSource.REPLICA, replicaDataSource);
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.config;
+
+import org.hibernate.LockOptions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.pagination.LimitHandler;
+import org.hibernate.engine.spi.RowSelection;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * H2 2.x 는 FOR UPDATE NOWAIT / WAIT n / SKIP LOCKED 를 지원하지만 H2Dialect(Hibernate 5)는 항상 " for update" 만 붙인다
+ *
+ * javax.persistence.lock.timeout 힌트 값(ms)에 따라
+ * 0 -> nowait, -2(LockOptions.SKIP_LOCKED) -> skip locked, 양수 -> wait 초, -1(기본) -> 세션 LOCK_TIMEOUT 만큼 대기
+ *
+ * Hibernate는 잠금 절을 붙인 뒤에 limit 절을 붙이는데 H2는 for update 뒤의 limit을 허용하지 않는다.
+ * 잠금 + setMaxResults (MemberRepository.claimBatch) 를 위해 limit 절을 for update 앞에 넣는다.
+ */
+public class H2LockingDialect extends H2Dialect {
+
+    private static final String FOR_UPDATE = " for update";
+
+    private final LimitHandler limitHandler = new LockAwareLimitHandler(super.getLimitHandler());
+
+    @Override
+    public LimitHandler getLimitHandler() {
+        return limitHandler;
+    }
+
+    @Override
+    public String getWriteLockString(int timeout) {
+        if (timeout == LockOptions.NO_WAIT) {
+            return getForUpdateNowaitString();
+        }
+        if (timeout == LockOptions.SKIP_LOCKED) {
+            return getForUpdateSkipLockedString();
+        }
+        if (timeout > 0) {
+            // WAIT 은 초 단위, 소수 허용
+            return getForUpdateString() + " wait " + BigDecimal.valueOf(timeout, 3).toPlainString();
+        }
+        return getForUpdateString();
+    }
+
+    // H2는 공유 잠금(for share)이 없으므로 PESSIMISTIC_READ도 for update
+    @Override
+    public String getReadLockString(int timeout) {
+        return getWriteLockString(timeout);
+    }
+
+    @Override
+    public String getForUpdateNowaitString() {
+        return getForUpdateString() + " nowait";
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString() {
+        return getForUpdateString() + " skip locked";
+    }
+
+    @Override
+    public boolean supportsSkipLocked() {
+        return true;
+    }
+
+    private static class LockAwareLimitHandler implements LimitHandler {
+
+        private final LimitHandler delegate;
+
+        LockAwareLimitHandler(LimitHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String processSql(String sql, RowSelection selection) {
+            int lockClause = sql.lastIndexOf(FOR_UPDATE);
+            if (lockClause < 0) {
+                return delegate.processSql(sql, selection);
+            }
+            // 잠금 절에는 파라미터가 없으므로 limit 파라미터 바인딩 순서는 그대로다
+            return delegate.processSql(sql.substring(0, lockClause), selection) + sql.substring(lockClause);
+        }
+
+        @Override
+        public boolean supportsLimit() {
+            return delegate.supportsLimit();
+        }
+
+        @Override
+        public boolean supportsLimitOffset() {
+            return delegate.supportsLimitOffset();
+        }
+
+        @Override
+        public int bindLimitParametersAtStartOfQuery(RowSelection selection, PreparedStatement statement, int index) throws SQLException {
+            return delegate.bindLimitParametersAtStartOfQuery(selection, statement, index);
+        }
+
+        @Override
+        public int bindLimitParametersAtEndOfQuery(RowSelection selection, PreparedStatement statement, int index) throws SQLException {
+            return delegate.bindLimitParametersAtEndOfQuery(selection, statement, index);
+        }
+
+        @Override
+        public void setMaxRows(RowSelection selection, PreparedStatement statement) throws SQLException {
+            delegate.setMaxRows(selection, statement);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * high-throughput 프로파일의 설정이 함께 적용됐는지 시작할 때 검사한다
+ * 하나라도 빠지면 (다른 설정 파일이나 환경 변수로 덮어쓴 경우 등) 애플리케이션을 띄우지 않는다
+ */
+@Component
+@Profile("high-throughput")
+@RequiredArgsConstructor
+public class HighThroughputProfileValidator implements InitializingBean {
+
+    private final EntityManagerFactory emf;
+    private final Environment environment;
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<String, Object> hibernate = emf.getProperties();
+        List<String> violations = new ArrayList<>();
+
+        if (intValue(hibernate, "hibernate.jdbc.batch_size") < 2) {
+            violations.add("hibernate.jdbc.batch_size must be greater than 1");
+        }
+        requireTrue(hibernate, "hibernate.order_inserts", violations);
+        requireTrue(hibernate, "hibernate.order_updates", violations);
+        if (intValue(hibernate, "hibernate.default_batch_fetch_size") < 2) {
+            violations.add("hibernate.default_batch_fetch_size must be greater than 1");
+        }
+        if (intValue(hibernate, "hibernate.query.plan_cache_max_size") < 2048) {
+            violations.add("hibernate.query.plan_cache_max_size must be at least 2048");
+        }
+        requireTrue(hibernate, "hibernate.query.in_clause_parameter_padding", violations);
+
+        // 둘 중 하나만 적용되면 트랜잭션이 autocommit으로 실행된다
+        boolean providerDisablesAutocommit = Boolean.parseBoolean(String.valueOf(hibernate.get("hibernate.connection.provider_disables_autocommit")));
+        boolean autoCommit = environment.getProperty("spring.datasource.hikari.auto-commit", Boolean.class, true);
+        if (providerDisablesAutocommit == autoCommit) {
+            violations.add("hibernate.connection.provider_disables_autocommit and spring.datasource.hikari.auto-commit=false must be set together");
+        }
+
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            violations.add("spring.jpa.open-in-view must be false");
+        }
+        if (environment.getProperty("decorator.datasource.p6spy.enable-logging", Boolean.class, true)) {
+            violations.add("decorator.datasource.p6spy.enable-logging must be false");
+        }
+        if (LoggerFactory.getLogger("org.hibernate.SQL").isDebugEnabled()) {
+            violations.add("logging.level.org.hibernate.SQL must not be debug");
+        }
+
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("high-throughput profile is not fully applied : " + violations);
+        }
+    }
+
+    private int intValue(Map<String, Object> properties, String key) {
+        Object value = properties.get(key);
+        return value == null ? 0 : Integer.parseInt(String.valueOf(value));
+    }
+
+    private void requireTrue(Map<String, Object> properties, String key, List<String> violations) {
+        if (!Boolean.parseBoolean(String.valueOf(properties.get(key)))) {
+            violations.add(key + " must be true");
+        }
+    }
+}
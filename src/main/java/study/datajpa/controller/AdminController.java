@@ -0,0 +1,54 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.monitoring.SlowQuery;
+import study.datajpa.monitoring.SlowQueryLog;
+import study.datajpa.repository.support.SecondLevelCacheSupport;
+import study.datajpa.transaction.ReadOnlyQueryMetrics;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final SecondLevelCacheSupport secondLevelCacheSupport;
+    private final ReadOnlyQueryMetrics readOnlyQueryMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    // 2차 캐시 region 별 hit/miss 통계
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Long>> cacheStats() {
+        return secondLevelCacheSupport.statistics();
+    }
+
+    @PostMapping("/cache/{region}/evict")
+    public void evictCacheRegion(@PathVariable("region") String region) {
+        secondLevelCacheSupport.evictRegion(region);
+    }
+
+    // @ReadOnlyQuery 로 생략된 스냅샷 수와 추정 메모리
+    @GetMapping("/read-only/stats")
+    public Map<String, Long> readOnlyStats() {
+        return readOnlyQueryMetrics.snapshot();
+    }
+
+    // 최근 slow query (SQL, 바인드 값, 호출한 리포지토리 메서드, 실행 계획)
+    @GetMapping("/slow-queries")
+    public List<SlowQuery> slowQueries() {
+        return slowQueryLog.recent();
+    }
+
+    @DeleteMapping("/slow-queries")
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+}
@@ -3,33 +3,50 @@ package study.datajpa.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.CursorResult;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.UnsupportedSortException;
+import study.datajpa.transaction.ReadOnlyQuery;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final MemberRepository memberRepository;
 
     @PostConstruct
     public void init() {
 //        memberRepository.save(new Member("userA"));
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
-            memberRepository.save(new Member("user" + i, i)); // userName, age
+            members.add(new Member("user" + i, i)); // userName, age
         }
+        memberRepository.saveAllBatched(members, 100);
     }
 
     @GetMapping("/members/{id}")
+    @ReadOnlyQuery
     public String findMember(@PathVariable("id") Long id) {
         Member member = memberRepository.findById(id).get();
         return member.getUserName();
@@ -41,12 +58,53 @@ public class MemberController {
     }
 
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
+    @ReadOnlyQuery
+    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable,
+                                @RequestParam(value = "count", defaultValue = "EXACT") CountStrategy countStrategy) {
 //        log.info("pageable = {}", pageable.toString());
 //        return memberRepository.findAll(pageable);
 
         // Member Entity -> Member DTO
-        return memberRepository.findAll(pageable)
-                               .map(m -> new MemberDto(m.getId(), m.getUserName(), null));
+//        return memberRepository.findAll(pageable, countStrategy)
+//                               .map(m -> new MemberDto(m.getId(), m.getUserName(), null));
+
+        // DTO로 바로 조회 : 엔티티, 스냅샷을 만들지 않고 팀 이름까지 한 번에
+        try {
+            return memberRepository.findMemberDtos(pageable, countStrategy);
+        } catch (UnsupportedSortException e) { // 정렬할 수 없는 속성
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // keyset 페이징 : 몇 번째 페이지든 비용이 동일하고 count 쿼리가 없다
+    @GetMapping("/members/keyset")
+    @ReadOnlyQuery
+    public CursorResult<MemberDto> listByKeyset(@RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "size", defaultValue = "5") int size) {
+        long lastId;
+        try {
+            lastId = CursorResult.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        Slice<Member> slice = memberRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+        return CursorResult.of(slice, Member::getId, m -> new MemberDto(m.getId(), m.getUserName(), null));
+    }
+
+    // listByKeyset의 비동기 버전 : 조회하는 동안 요청 스레드를 반납한다
+    @GetMapping("/members/async")
+    public CompletableFuture<CursorResult<MemberDto>> listAsync(@RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestParam(value = "size", defaultValue = "5") int size) {
+        long lastId;
+        try {
+            lastId = CursorResult.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        return memberRepository.findAsyncByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE))))
+                               .thenApply(slice -> CursorResult.of(slice, Member::getId,
+                                       m -> new MemberDto(m.getId(), m.getUserName(), m.getTeam() == null ? null : m.getTeam().getName())));
     }
 }
@@ -0,0 +1,112 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 회원 전체 내보내기
+ * List로 모으지 않고 DB 커서에서 읽는 대로 응답에 바로 쓰기 때문에 회원 수와 상관없이 메모리 사용량이 일정하다
+ */
+@RestController
+public class MemberExportController {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    // 열려 있는 커서(Stream) 수, 내보내기가 끝나면 0으로 돌아와야 한다
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    public MemberExportController(MemberRepository memberRepository, PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.memberRepository = memberRepository;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        meterRegistry.gauge("member.export.open.streams", openStreams);
+    }
+
+    public int getOpenStreams() {
+        return openStreams.get();
+    }
+
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        StreamingResponseBody body = out -> {
+            // StreamingResponseBody는 별도 스레드에서 실행되므로 여기서 트랜잭션을 시작한다
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                // 커서 열기에 실패하면 onClose가 등록되지 않으므로 연 뒤에 센다
+                Stream<Member> opened = memberRepository.streamMemberCustom(FETCH_SIZE);
+                openStreams.incrementAndGet();
+                try (Stream<Member> members = opened.onClose(openStreams::decrementAndGet)) {
+                    if (csv) {
+                        writer.write("id,userName,age\n");
+                    }
+                    members.forEach(member -> writeLine(writer, member, csv));
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
+    private void writeLine(Writer writer, Member member, boolean csv) {
+        try {
+            if (csv) {
+                writer.write(member.getId() + "," + csvValue(member.getUserName()) + "," + member.getAge() + "\n");
+            } else {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", member.getId());
+                row.put("userName", member.getUserName());
+                row.put("age", member.getAge());
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
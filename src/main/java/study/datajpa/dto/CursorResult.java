@@ -0,0 +1,54 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * keyset(seek) 페이징 결과
+ * nextCursor는 클라이언트 입장에서 의미를 알 수 없는 불투명한 토큰으로 내려준다
+ */
+@Getter
+public class CursorResult<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorResult(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    public static <S, T> CursorResult<T> of(Slice<S> slice, Function<S, Long> keyExtractor, Function<S, T> converter) {
+        List<S> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            nextCursor = encode(keyExtractor.apply(content.get(content.size() - 1)));
+        }
+        return new CursorResult<>(slice.map(converter).getContent(), nextCursor);
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 커서가 없으면 처음부터 조회
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.entity;
+
+import org.springframework.data.domain.AuditorAware;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * BaseTimeEntity, BaseEntity, JpaBaseEntity 공통 auditing 리스너
+ *
+ * AuditingEntityListener는 엔티티마다 리플렉션으로 @CreatedDate 등을 찾아서 값을 넣는다.
+ * 여기서는 대상 필드가 정해져 있으므로 setter를 바로 호출한다.
+ * 스프링 빈 컨테이너(SpringBeanContainer)가 생성하므로 생성자 주입을 받을 수 있다.
+ */
+public class AuditListener {
+
+    private final AuditorAware<String> auditorAware;
+    private final Clock clock;
+
+    public AuditListener(AuditorAware<String> auditorAware, Clock clock) {
+        this.auditorAware = auditorAware;
+        this.clock = clock;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markCreated(now);
+            if (entity instanceof BaseEntity) {
+                ((BaseEntity) entity).markCreatedBy(currentAuditor());
+            }
+        } else if (entity instanceof JpaBaseEntity) {
+            ((JpaBaseEntity) entity).prePersist(now);
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markModified(now);
+            if (entity instanceof BaseEntity) {
+                ((BaseEntity) entity).markModifiedBy(currentAuditor());
+            }
+        } else if (entity instanceof JpaBaseEntity) {
+            ((JpaBaseEntity) entity).preUpdate(now);
+        }
+    }
+
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+}
@@ -2,26 +2,30 @@ package study.datajpa.entity;
 
 import lombok.Getter;
 import lombok.ToString;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
 @ToString
 public class BaseTimeEntity {
 
-    @CreatedDate
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
 
+    // 등록 시 수정일도 같이 채운다 (AuditingEntityListener와 동일)
+    void markCreated(LocalDateTime now) {
+        this.createdDate = now;
+        this.lastModifiedDate = now;
+    }
+
+    void markModified(LocalDateTime now) {
+        this.lastModifiedDate = now;
+    }
 }
@@ -29,6 +29,11 @@ public class Item implements Persistable<String> {
         this.id = id;
     }
 
+    public Item(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     @Override
     public boolean isNew() {
         return createdDate == null;
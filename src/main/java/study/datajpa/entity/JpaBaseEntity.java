@@ -4,11 +4,12 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 import java.time.LocalDateTime;
 
+// 순수 JPA 방식의 등록일/수정일, 시간은 BaseTimeEntity와 같은 AuditListener(Clock)에서 채운다
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
 @Setter
@@ -19,16 +20,13 @@ public class JpaBaseEntity {
     private LocalDateTime updatedDate;
 
     // Persist 하기 전
-    @PrePersist
-    public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+    void prePersist(LocalDateTime now) {
         this.createdDate = now;
         this.updatedDate = now;
     }
 
     // Update하기 전
-    @PreUpdate
-    public void preUpdate() {
-        updatedDate = LocalDateTime.now();
+    void preUpdate(LocalDateTime now) {
+        updatedDate = now;
     }
 }
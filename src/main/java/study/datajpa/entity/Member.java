@@ -1,6 +1,8 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
@@ -9,19 +11,30 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "userName", "age"}) // 연관관계 필드는 @ToString 지양
+@Table(indexes = { // 스키마는 db/migration (Flyway), 여기 선언은 문서 + ExampleQuerySupport 조건 순서용
+        @Index(name = "idx_member_user_name_team_id", columnList = "user_name, team_id"), // V2, findMemberDtos 정렬 + 조인 컬럼
+        @Index(name = "idx_member_age_user_name", columnList = "age, user_name"),
+        @Index(name = "idx_member_team_id", columnList = "team_id")
+})
 @NamedQuery(
         name = "Member.findByUserName",
         query = "select m from Member m where m.userName = :userName"
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member") // 2차 캐시
 public class Member extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50) // pooled optimizer, 50개 단위로 시퀀스 할당
     @Column(name = "member_id")
     private Long id;
     private String userName;
     private int age;
 
+    @Version // 낙관적 락, 변경 시 version 조건으로 update (충돌 시 TransactionRetryExecutor로 재시도)
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id") // FK
     private Team team;
@@ -1,6 +1,9 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,14 +14,22 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 2차 캐시
 public class Team extends JpaBaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version // 낙관적 락
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
+    @OptimisticLock(excluded = true) // 회원 추가/제거로 팀 version이 오르지 않게 (같은 팀에 동시에 가입해도 충돌 X)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,51 @@
+package study.datajpa.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.datajpa.config.DataJpaProperties;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 요청 단위 SQL 예산 검사
+ * 예산을 넘거나 같은 형태의 SQL이 반복되면(N+1 의심) 경고 로그를 남긴다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final DataJpaProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        DataJpaProperties.QueryCount config = properties.getQueryCount();
+        if (!config.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (QueryCountScope scope = QueryCounter.open()) {
+            filterChain.doFilter(request, response);
+
+            String uri = request.getMethod() + " " + request.getRequestURI();
+            Map<String, Integer> repeated = scope.getRepeatedStatements(config.getRepeatThreshold());
+            repeated.forEach((sql, executions) ->
+                    log.warn("[N+1] {} executed the same statement {} times: {}", uri, executions, sql));
+
+            if (scope.getCount() > config.getRequestBudget()) {
+                log.warn("[query budget] {} executed {} statements (budget {})", uri, scope.getCount(), config.getRequestBudget());
+                if (config.isFailOnBudgetExceeded()) {
+                    scope.assertAtMost(config.getRequestBudget());
+                }
+            }
+        }
+    }
+}
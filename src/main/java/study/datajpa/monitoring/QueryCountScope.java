@@ -0,0 +1,66 @@
+package study.datajpa.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * open ~ close 구간에서 실행된 SQL 수
+ *
+ * <pre>
+ * try (QueryCountScope scope = QueryCounter.open()) {
+ *     memberRepository.findMemberFetchJoin();
+ *     scope.assertAtMost(1);
+ * }
+ * </pre>
+ */
+public class QueryCountScope implements AutoCloseable {
+
+    private long count;
+    private final Map<String, int[]> statements; // SQL 형태별 실행 횟수, 수만 세는 경우 null
+    private boolean closed;
+
+    QueryCountScope(boolean trackStatements) {
+        this.statements = trackStatements ? new HashMap<>() : null;
+    }
+
+    void record(String sql) {
+        count++;
+        if (statements != null) {
+            statements.computeIfAbsent(sql, key -> new int[1])[0]++;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // 같은 형태의 SQL이 threshold 번 이상 실행된 경우 (N+1 의심), openCounting()으로 열었으면 항상 비어 있다
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        if (statements == null) {
+            return repeated;
+        }
+        statements.forEach((sql, executions) -> {
+            if (executions[0] >= threshold) {
+                repeated.put(sql, executions[0]);
+            }
+        });
+        return repeated;
+    }
+
+    public void assertAtMost(long budget) {
+        if (count > budget) {
+            throw new IllegalStateException("query budget exceeded: expected at most " + budget
+                    + " statements but was " + count + ", repeated = " + getRepeatedStatements(2));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            QueryCounter.close(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행되는 SQL 수를 센다
+ *
+ * QueryCountInspector(Hibernate StatementInspector)가 SQL 마다 record()를 호출하고,
+ * open()으로 연 QueryCountScope들이 각자 구간의 SQL 수와 SQL 형태별 실행 횟수를 모은다.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Deque<QueryCountScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryCounter() {
+    }
+
+    public static QueryCountScope open() {
+        return push(new QueryCountScope(true));
+    }
+
+    // SQL 수만 센다, SQL 형태별 실행 횟수는 모으지 않는다 (RepositoryMetricsAspect처럼 호출마다 여는 경우)
+    public static QueryCountScope openCounting() {
+        return push(new QueryCountScope(false));
+    }
+
+    private static QueryCountScope push(QueryCountScope scope) {
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void record(String sql) {
+        Deque<QueryCountScope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        for (QueryCountScope scope : scopes) {
+            scope.record(sql);
+        }
+    }
+
+    static void close(QueryCountScope scope) {
+        Deque<QueryCountScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+}
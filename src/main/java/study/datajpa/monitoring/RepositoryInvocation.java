@@ -0,0 +1,33 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드 (ex. "MemberRepository.findByUserName")
+ * 리포지토리 안에서 다른 리포지토리를 호출하면 가장 안쪽 메서드
+ */
+public final class RepositoryInvocation {
+
+    private static final ThreadLocal<Deque<String>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private RepositoryInvocation() {
+    }
+
+    // 리포지토리 밖이면 null
+    public static String current() {
+        return CURRENT.get().peek();
+    }
+
+    static void enter(String method) {
+        CURRENT.get().push(method);
+    }
+
+    static void exit() {
+        Deque<String> stack = CURRENT.get();
+        stack.poll();
+        if (stack.isEmpty()) {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+/**
+ * 리포지토리 메서드 별 지표 (Micrometer, /actuator/prometheus)
+ *
+ * - repository.invocations : 실행 시간 (histogram), outcome=success|error
+ * - repository.rows : 반환한 엔티티/row 수 (List, Page/Slice, Optional, 단건)
+ * - repository.statements : 실행한 SQL 수 (QueryCounter)
+ *
+ * 지표는 (리포지토리, 메서드) 별로 처음 호출될 때 한 번만 등록하고 이후에는 기록만 한다.
+ *
+ * 스프링 데이터 JPA 리포지토리와 @Repository 클래스(MemberJpaRepository, TeamJpaRepository ...)가 대상이다.
+ * @Async 메서드는 executor 스레드에서 측정된다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private static final String INVOCATIONS = "repository.invocations";
+    private static final String ROWS = "repository.rows";
+    private static final String STATEMENTS = "repository.statements";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, RepositoryMeters>> meters = new ConcurrentHashMap<>();
+
+    @Around("this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> repositoryClass = joinPoint.getThis().getClass();
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        RepositoryMeters repositoryMeters = meters.computeIfAbsent(repositoryClass, key -> new ConcurrentHashMap<>())
+                                                  .computeIfAbsent(signature.getMethod(), method -> register(repositoryClass, method));
+
+        RepositoryInvocation.enter(repositoryMeters.name);
+        QueryCountScope scope = QueryCounter.openCounting();
+        long start = System.nanoTime();
+        Timer timer = repositoryMeters.error;
+        try {
+            Object result = joinPoint.proceed();
+            timer = repositoryMeters.success;
+            Integer rows = signature.getReturnType() == void.class ? null : rows(result);
+            if (rows != null) {
+                repositoryMeters.rows.record(rows);
+            }
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            repositoryMeters.statements.record(scope.getCount());
+            scope.close();
+            RepositoryInvocation.exit();
+        }
+    }
+
+    // (리포지토리, 메서드) 별로 한 번만 등록한다
+    private RepositoryMeters register(Class<?> repositoryClass, Method method) {
+        String repository = repositoryNames.computeIfAbsent(repositoryClass, this::repositoryName);
+        String name = method.getName();
+        return new RepositoryMeters(repository + "." + name,
+                timer(repository, name, "success"),
+                timer(repository, name, "error"),
+                DistributionSummary.builder(ROWS)
+                                   .tags("repository", repository, "method", name)
+                                   .register(registry),
+                DistributionSummary.builder(STATEMENTS)
+                                   .tags("repository", repository, "method", name)
+                                   .register(registry));
+    }
+
+    private Timer timer(String repository, String method, String outcome) {
+        return Timer.builder(INVOCATIONS)
+                    .tags("repository", repository, "method", method, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+    }
+
+    // 스프링 데이터 리포지토리는 프록시가 구현한 study.datajpa 인터페이스 이름, 그 외에는 클래스 이름
+    private String repositoryName(Class<?> proxyClass) {
+        if (Repository.class.isAssignableFrom(proxyClass)) {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClass(proxyClass)) {
+                if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("study.datajpa.")) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(proxyClass).getSimpleName();
+    }
+
+    // 반환 값으로 row 수를 알 수 없으면 null (벌크 연산 결과 int, Stream 등)
+    private Integer rows(Object result) {
+        if (result instanceof CompletableFuture) {
+            CompletableFuture<?> future = (CompletableFuture<?>) result;
+            return future.isDone() && !future.isCompletedExceptionally() ? rows(future.join()) : null;
+        }
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof BaseStream) {
+            return null;
+        }
+        return 1;
+    }
+
+    @RequiredArgsConstructor
+    private static class RepositoryMeters {
+
+        private final String name; // RepositoryInvocation 이름 (ex. MemberRepository.findByUserName)
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+    }
+}
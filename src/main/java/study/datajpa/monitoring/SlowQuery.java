@@ -0,0 +1,30 @@
+package study.datajpa.monitoring;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * threshold를 넘은 SQL 한 건
+ */
+@Getter
+public class SlowQuery {
+
+    private final LocalDateTime executedAt;
+    private final long elapsedMillis;
+    private final String caller; // 리포지토리 메서드, 리포지토리 밖이면 null
+    private final String sql;
+    private final String sqlWithValues; // 바인드 값이 들어간 SQL
+    private final String plan; // EXPLAIN 결과, SELECT가 아니거나 실패하면 null
+    private final String error;
+
+    public SlowQuery(LocalDateTime executedAt, long elapsedMillis, String caller, String sql, String sqlWithValues, String plan, String error) {
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.caller = caller;
+        this.sql = sql;
+        this.sqlWithValues = sqlWithValues;
+        this.plan = plan;
+        this.error = error;
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.datajpa.config.DataJpaProperties;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 이벤트로 threshold를 넘은 SQL만 수집한다 (SlowQueryLog, /admin/slow-queries)
+ *
+ * SELECT는 같은 커넥션(p6spy로 감싸지 않은 원본)에서 바로 EXPLAIN을 실행해서 실행 계획을 함께 남긴다.
+ * explain-analyze=true 이면 EXPLAIN ANALYZE (쿼리를 한 번 더 실행한다)
+ *
+ * EXPLAIN은 호출한 스레드에서 같은 커넥션으로 동기 실행된다. 트랜잭션 안에서 실행해야 같은 데이터, 같은 잠금으로
+ * 계획을 볼 수 있어서 다른 스레드로 넘기지 않는다. 대신 slow query마다 응답이 그만큼 늦어지므로
+ * 운영에서는 threshold를 충분히 크게 두거나 explain=false로 끈다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener extends JdbcEventListener {
+
+    private final DataJpaProperties properties;
+    private final SlowQueryLog slowQueryLog;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        DataJpaProperties.SlowQuery config = properties.getSlowQuery();
+        if (!config.isEnabled() || timeElapsedNanos < config.getThreshold().toNanos()) {
+            return;
+        }
+
+        String sql = statementInformation.getSql();
+        String sqlWithValues = statementInformation.getSqlWithValues();
+        String plan = null;
+        String error = e == null ? null : e.getMessage();
+        if (e == null && config.isExplain() && isSelect(sql)) {
+            try {
+                plan = explain(statementInformation.getConnectionInformation().getConnection(), sqlWithValues, config.isExplainAnalyze());
+            } catch (SQLException explainError) {
+                error = "explain failed: " + explainError.getMessage();
+            }
+        }
+
+        String caller = RepositoryInvocation.current();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        slowQueryLog.add(new SlowQuery(LocalDateTime.now(), elapsedMillis, caller, sql, sqlWithValues, plan, error));
+        log.warn("[slow query] {}ms {} : {}", elapsedMillis, caller, sqlWithValues);
+    }
+
+    private boolean isSelect(String sql) {
+        String trimmed = sql.trim().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") || trimmed.startsWith("with");
+    }
+
+    // 요청 경로에서 동기로 실행된다 (클래스 주석 참고)
+    private String explain(Connection connection, String sql, boolean analyze) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery((analyze ? "explain analyze " : "explain ") + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.monitoring;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.datajpa.config.DataJpaProperties;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 최근 slow query, 최대 capacity 건을 보관하고 넘치면 오래된 것부터 버린다
+ */
+@Component
+public class SlowQueryLog {
+
+    private final int capacity;
+    private final Deque<SlowQuery> entries;
+
+    public SlowQueryLog(DataJpaProperties properties) {
+        this.capacity = properties.getSlowQuery().getCapacity();
+        Assert.isTrue(capacity > 0, "datajpa.slow-query.capacity must be greater than 0");
+        this.entries = new ArrayDeque<>(capacity);
+    }
+
+    public synchronized void add(SlowQuery slowQuery) {
+        if (entries.size() == capacity) {
+            entries.pollFirst();
+        }
+        entries.addLast(slowQuery);
+    }
+
+    // 최근 것부터
+    public synchronized List<SlowQuery> recent() {
+        List<SlowQuery> result = new ArrayList<>(entries.size());
+        entries.descendingIterator().forEachRemaining(result::add);
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+import study.datajpa.repository.support.UpsertResult;
+
+public interface ItemRepositoryCustom {
+
+    // id가 있으면 name 수정, 없으면 등록. save()와 달리 건마다 select(merge) 하지 않는다
+    UpsertResult upsertAll(Iterable<Item> items, int batchSize);
+}
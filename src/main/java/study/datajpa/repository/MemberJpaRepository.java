@@ -1,26 +1,53 @@
 package study.datajpa.repository;
 
 import jdk.nashorn.internal.runtime.options.Option;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BulkUpdateSupport;
+import study.datajpa.repository.support.BulkUpdateSupport.SyncMode;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final BulkUpdateSupport bulkUpdateSupport;
+
     // 저장
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    // 대량 저장, batchSize 단위로 flush(JDBC batch insert) + clear
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
     // 삭제
     public void delete(Member member) {
         em.remove(member);
@@ -32,6 +59,19 @@ public class MemberJpaRepository {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
 
+    // 전체 조회(stream), 커서로 fetchSize 만큼씩 읽고 꺼낸 엔티티는 바로 준영속 상태로 만든다
+    // 트랜잭션 안에서 사용하고 다 쓴 Stream은 반드시 close 해야 한다
+    public Stream<Member> streamAll(int fetchSize) {
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .map(m -> { // peek은 실행이 보장되지 않는다
+                    em.detach(m);
+                    return m;
+                });
+    }
+
     // 단건 조회
     public Optional<Member> findById(Long id) {
         Member member = em.find(Member.class, id);
@@ -78,11 +118,13 @@ public class MemberJpaRepository {
     }
 
     // 순수 JPA : 회원의 나이를 한 번에 변경하는 Bulk성 쿼리 작성
+    // 영속성 컨텍스트에 있는 대상 회원만 refresh 해서 stale 상태가 남지 않게 한다
     public int bulkAgePlus(int age) {
-        return em.createQuery(
-                "update Member m set m.age = m.age + 1 " +
+        Query update = em.createQuery(
+                "update versioned Member m set m.age = m.age + 1, " + // version도 +1
+                  "m.lastModifiedDate = :now, m.lastModifiedBy = :auditor " + // BulkUpdateSupport가 채운다
                   "where m.age >= :age")
-                .setParameter("age", age)
-                .executeUpdate();
+                .setParameter("age", age);
+        return bulkUpdateSupport.executeUpdate(update, Member.class, m -> m.getAge() >= age, SyncMode.REFRESH);
     }
 }
@@ -1,11 +1,13 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -18,4 +20,15 @@ public class MemberQueryRepository {
                 .getResultList();
     }
 
+    Stream<Member> streamAllMembers(int fetchSize) {
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .map(m -> { // peek은 실행이 보장되지 않는다
+                    em.detach(m);
+                    return m;
+                });
+    }
+
 }
@@ -5,14 +5,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
+import study.datajpa.config.AsyncConfig;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
-import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
 
@@ -40,24 +42,20 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.userName in :names")
-    List<Member> findByNames(@Param("names") List<String> names);
-
     List<Member> findListByUserName(String userName); // 컬렉션
     Member findMemberByUserName(String userName); // 단건
     Optional<Member> findOptionalByUserName(String userName); // 단건 Optional
 
     @Query(value = "select m from Member m left join m.team where m.age = :age",
-            countQuery = "select count(m.userName) from Member m")
+            countQuery = "select count(m) from Member m where m.age = :age")
     Page<Member> findPagingByAge(@Param("age") int age, Pageable pageable);
 
     @Query(value = "select m from Member m left join m.team where m.age = :age",
             countQuery = "select count(m.userName) from Member m")
     Slice<Member> findSliceByAge(@Param("age") int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    // keyset(seek) 페이징 : offset 대신 마지막으로 조회한 id 이후부터 조회, count 쿼리가 나가지 않는다
+    Slice<Member> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
 
     // JPA의 JPQL + fetch 조인 사용
     @Query("select m from Member m left join fetch m.team")
@@ -83,8 +81,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     //select for update
 //    @Lock(LockModeType.PESSIMISTIC_READ)
 //    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    List<Member> findLockByUserName(String userName);
+//    @Lock(LockModeType.PESSIMISTIC_WRITE)
+//    List<Member> findLockByUserName(String userName);
 
 //    List<UserNameOnly> findProjectionsByUserName(@Param("userName") String userName); // 인터페이스 기반 Projection
 
@@ -92,12 +90,21 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     <T> List<T> findProjectionsByUserName(@Param("userName") String userName, Class<T> type); // 클래스 기반 Projection + 동적 Projection [제네릭 타입]
 
+    // 비동기 조회 : repositoryExecutor 스레드의 트랜잭션에서 실행되고 끝나면 준영속, 연관관계는 EntityGraph로 함께 조회
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @EntityGraph(attributePaths = {"team"})
+    CompletableFuture<List<Member>> findAsyncByUserName(String userName);
+
+    @Async(AsyncConfig.REPOSITORY_EXECUTOR)
+    @EntityGraph(attributePaths = {"team"})
+    CompletableFuture<Slice<Member>> findAsyncByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
     @Query(value = "select * from member where user_name = ?", nativeQuery = true)
     Member findByNativeQuery(String userName);
 
     @Query(value = "select m.member_id as id, m.user_name as userName, t.name as teamName " +
-            "from member m left join team t ", // ANSI SQL 표준
-            countQuery = "select count(*) from member " , // Native Query Count Query가 들어가야함
+            "from member m left join team t on m.team_id = t.team_id", // ANSI SQL 표준
+            countQuery = "select count(*) from member", // Native Query Count Query가 들어가야함
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
 
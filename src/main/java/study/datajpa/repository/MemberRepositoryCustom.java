@@ -1,11 +1,61 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CachedSpecification;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.LockTimeout;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
 
+    // in 절 조회, 이름이 많으면 나눠서 조회하고 요청한 이름 순서대로 반환한다
+    List<Member> findByNames(List<String> names);
+
+    // findAll(spec)과 결과는 같고, 조건 모양(shape) 별로 같은 JPQL을 만들어 쿼리 플랜을 재사용한다 (SpecificationQuerySupport)
+    List<Member> findAllCached(CachedSpecification<Member> spec);
+
+    // Query by Example, 같은 모양의 probe는 JPQL을 재사용하고 결과는 쿼리 캐시(member-probe)에 보관한다
+    List<Member> findAllByExampleCached(Example<Member> example);
+
+    // findMemberCustom의 Stream 버전, 트랜잭션 안에서 사용하고 반드시 close 해야 한다
+    Stream<Member> streamMemberCustom(int fetchSize);
+
+    // total count 방식을 선택할 수 있는 페이징
+    Page<Member> findAll(Pageable pageable, CountStrategy countStrategy);
+
+    Page<Member> findPagingByAge(int age, Pageable pageable, CountStrategy countStrategy);
+
+    // 목록 화면용 DTO 페이징, 엔티티를 만들지 않으므로 영속성 컨텍스트/스냅샷이 없다
+    Page<MemberDto> findMemberDtos(Pageable pageable, CountStrategy countStrategy);
+
+    Page<MemberProjection> findByNativeProjection(Pageable pageable, CountStrategy countStrategy);
+
+    // select for update, 잠금을 datajpa.lock.timeout 까지만 기다린다 (넘으면 PessimisticLockingFailureException)
+    List<Member> findLockByUserName(String userName);
+
+    // 잠금 대기 방식 지정 : LockTimeout.of(Duration), NO_WAIT, SKIP_LOCKED
+    List<Member> findLockByUserName(String userName, LockTimeout timeout);
+
+    // 작업 큐 : 조건에 맞는 회원을 id 순으로 최대 n명 잠근다 (for update skip locked)
+    // 다른 트랜잭션이 잠근 회원은 건너뛰므로 여러 워커가 겹치지 않는 묶음을 가져간다, 잠금은 트랜잭션이 끝날 때까지 유지
+    List<Member> claimBatch(Specification<Member> spec, int n);
+
+    // 회원 나이 +1 벌크 연산, 영속성 컨텍스트 전체를 비우지 않고 대상 회원만 refresh 한다
+    int bulkAgePlus(int age);
+
+    // 대량 저장 : batchSize 단위로 JDBC batch insert 후 영속성 컨텍스트를 비운다
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    // 동적 Projection, projection에 필요한 컬럼만 조회한다 (ProjectionCompiler)
+    <T> List<T> findProjectedByUserName(String userName, Class<T> type);
+
 }
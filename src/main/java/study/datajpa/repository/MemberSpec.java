@@ -1,28 +1,30 @@
 package study.datajpa.repository;
 
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.support.CachedSpecification;
 
 import javax.persistence.criteria.*;
 
+// CachedSpecification : findAll(spec)과 findAllCached(spec) 모두 사용할 수 있다
 public class MemberSpec {
 
-    public static Specification<Member> teamName(final String teamName) {
-        return (root, query, criteriaBuilder) -> {
+    public static CachedSpecification<Member> teamName(final String teamName) {
+        if (StringUtils.isEmpty(teamName)) {
+            return CachedSpecification.empty();
+        }
 
-            if (StringUtils.isEmpty(teamName)) {
-                return null;
-            }
-
-            Join<Member, Team> t = root.join("team", JoinType.INNER);// 회원과 조인
-            return criteriaBuilder.equal(t.get("name"), teamName);
-        };
+        return CachedSpecification.of("inner join {root}.team t", "t.name = ?", teamName,
+                (root, query, criteriaBuilder) -> {
+                    Join<Member, Team> t = root.join("team", JoinType.INNER);// 회원과 조인
+                    return criteriaBuilder.equal(t.get("name"), teamName);
+                });
     }
 
-    public static Specification<Member> userName(final String userName) {
-        return (root, query, criteriaBuilder) ->
-            criteriaBuilder.equal(root.get("userName"), userName);
+    public static CachedSpecification<Member> userName(final String userName) {
+        return CachedSpecification.of(null, "{root}.userName = ?", userName,
+                (root, query, criteriaBuilder) ->
+                        criteriaBuilder.equal(root.get("userName"), userName));
     }
 }
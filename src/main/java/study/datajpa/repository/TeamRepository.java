@@ -1,9 +1,53 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Team;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+    // 쿼리 캐시, Team/Member 테이블이 변경되면 Hibernate가 결과를 무효화 한다
+    @Override
+    @QueryHints(value = {
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "team-query")
+    })
+    List<Team> findAll();
+
+    @Query("select t.id from Team t")
+    Slice<Long> findIdSlice(Pageable pageable);
+
+    @Query("select distinct t from Team t left join fetch t.members where t.id in :ids")
+    List<Team> findWithMembersByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 팀 + 회원 페이징
+    // 컬렉션 fetch join은 페이징이 안 되기 때문에 팀 id만 페이징 한 뒤 해당 팀들만 fetch join, 쿼리는 항상 2번
+    default Slice<Team> findTeamsWithMembers(Pageable pageable) {
+        Slice<Long> ids = findIdSlice(pageable);
+        if (!ids.hasContent()) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+
+        Map<Long, Team> teams = findWithMembersByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Team::getId, Function.identity()));
+        List<Team> content = ids.getContent().stream()
+                .map(teams::get)
+                .collect(Collectors.toList());
+        return new SliceImpl<>(content, pageable, ids.hasNext());
+    }
+
 }
@@ -0,0 +1,80 @@
+package study.datajpa.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepositoryCustom;
+import study.datajpa.repository.support.UpsertResult;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Item bulk upsert
+ *
+ * batchSize 단위로 (1) 이미 있는 id를 in 쿼리 한 번으로 조회하고 (2) MERGE 문을 JDBC batch로 실행한다.
+ * MERGE ... USING 은 표준 SQL (H2, Oracle, SQL Server, PostgreSQL 15+)
+ * 등록일(created_date)은 등록될 때만 채우고 수정할 때는 그대로 둔다.
+ * JDBC로 바로 실행하므로 영속성 컨텍스트에 있는 Item은 갱신되지 않는다.
+ */
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String SELECT_EXISTING_IDS = "select id from item where id in (:ids)";
+    private static final String MERGE = "merge into item t " +
+            "using (values (?, ?, ?)) s (id, name, created_date) on t.id = s.id " +
+            "when matched then update set t.name = s.name " +
+            "when not matched then insert (id, name, created_date) values (s.id, s.name, s.created_date)";
+
+    private final EntityManager em;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Override
+    @Transactional
+    public UpsertResult upsertAll(Iterable<Item> items, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        em.flush(); // 아직 insert 되지 않은 Item이 있으면 먼저 반영
+
+        UpsertResult result = new UpsertResult(0, 0);
+        Map<String, Item> chunk = new LinkedHashMap<>();
+        for (Item item : items) {
+            Assert.notNull(item.getId(), "Item id must not be null");
+            chunk.put(item.getId(), item); // 같은 id가 여러 번 오면 마지막 값
+            if (chunk.size() == batchSize) {
+                result = result.plus(upsertChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result = result.plus(upsertChunk(chunk));
+        }
+        return result;
+    }
+
+    private UpsertResult upsertChunk(Map<String, Item> chunk) {
+        Set<String> existingIds = new HashSet<>(jdbcTemplate.queryForList(SELECT_EXISTING_IDS,
+                Collections.singletonMap("ids", chunk.keySet()), String.class));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+        for (Item item : chunk.values()) {
+            batchArgs.add(new Object[]{item.getId(), item.getName(), now});
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(MERGE, batchArgs);
+
+        return new UpsertResult(chunk.size() - existingIds.size(), existingIds.size());
+    }
+}
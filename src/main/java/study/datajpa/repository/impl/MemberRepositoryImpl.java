@@ -1,21 +1,293 @@
 package study.datajpa.repository.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.datajpa.config.DataJpaProperties;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberProjection;
 import study.datajpa.repository.MemberRepository;
 import study.datajpa.repository.MemberRepositoryCustom;
+import study.datajpa.repository.support.BulkUpdateSupport;
+import study.datajpa.repository.support.CachedSpecification;
+import study.datajpa.repository.support.BulkUpdateSupport.SyncMode;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.ExampleQuerySupport;
+import study.datajpa.repository.support.InClauseSupport;
+import study.datajpa.repository.support.LockTimeout;
+import study.datajpa.repository.support.PageCountSupport;
+import study.datajpa.repository.support.ProjectionCompiler;
+import study.datajpa.repository.support.SpecificationQuerySupport;
+import study.datajpa.repository.support.UnsupportedSortException;
+import study.datajpa.schema.FragmentQueries;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
-public class MemberRepositoryImpl implements MemberRepositoryCustom {
+public class MemberRepositoryImpl implements MemberRepositoryCustom, FragmentQueries {
+
+    // QueryPlanVerifier가 실행 계획을 검사하는 JPQL (getFragmentQueries)
+    private static final String FIND_BY_NAMES = "select m from Member m where m.userName in :names";
+    private static final String FIND_PAGING_BY_AGE = "select m from Member m left join m.team where m.age = :age";
+    private static final String COUNT_BY_AGE = "select count(m) from Member m where m.age = :age";
+    private static final String FIND_MEMBER_DTOS = "select new study.datajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m left join m.team t";
+    private static final String FIND_LOCK_BY_USER_NAME = "select m from Member m where m.userName = :userName";
+
+    // findMemberDtos 정렬 속성 -> JPQL 경로, MemberDto 속성 이름 기준 (teamName은 Member 속성이 아니다)
+    private static final Map<String, String> MEMBER_DTO_SORT = new HashMap<>();
+
+    static {
+        MEMBER_DTO_SORT.put("id", "m.id");
+        MEMBER_DTO_SORT.put("userName", "m.userName");
+        MEMBER_DTO_SORT.put("teamName", "t.name");
+    }
 
     private final EntityManager em;
+    private final PageCountSupport pageCountSupport;
+    private final BulkUpdateSupport bulkUpdateSupport;
+    private final ProjectionCompiler projectionCompiler;
+    private final InClauseSupport inClauseSupport;
+    private final SpecificationQuerySupport specificationQuerySupport;
+    private final ExampleQuerySupport exampleQuerySupport;
+    private final DataJpaProperties properties;
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByNames(List<String> names) {
+        return inClauseSupport.findAllIn(names, Member::getUserName,
+                chunk -> em.createQuery(FIND_BY_NAMES, Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findAllCached(CachedSpecification<Member> spec) {
+        return specificationQuerySupport.findAll(em, Member.class, spec);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findAllByExampleCached(Example<Member> example) {
+        return exampleQuerySupport.findAll(em, example, "member-probe");
+    }
+
+    @Override
+    public Stream<Member> streamMemberCustom(int fetchSize) {
+        // ScrollableResults(FORWARD_ONLY) 기반 Stream, 읽기 전용이라 스냅샷을 만들지 않는다
+        @SuppressWarnings("unchecked")
+        Query<Member> query = em.createQuery("select m from Member m", Member.class)
+                .unwrap(Query.class);
+        return query.setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .stream()
+                .map(m -> { // peek은 실행이 보장되지 않는다
+                    em.detach(m);
+                    return m;
+                });
+    }
+
+    @Override
+    public Page<Member> findAll(Pageable pageable, CountStrategy countStrategy) {
+        List<Member> content = em.createQuery(QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m"), Member.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return pageCountSupport.getPage(content, pageable, countStrategy, Member.class, null,
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Page<Member> findPagingByAge(int age, Pageable pageable, CountStrategy countStrategy) {
+        List<Member> content = em.createQuery(QueryUtils.applySorting(FIND_PAGING_BY_AGE, pageable.getSort(), "m"), Member.class)
+                .setParameter("age", age)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return pageCountSupport.getPage(content, pageable, countStrategy, Member.class, "age=" + age,
+                () -> em.createQuery(COUNT_BY_AGE, Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberDto> findMemberDtos(Pageable pageable, CountStrategy countStrategy) {
+        // 생성자 표현식 : member_id, user_name, team.name 만 조회, 팀이 없는 회원도 포함 (left join)
+        List<MemberDto> content = em.createQuery(FIND_MEMBER_DTOS + memberDtoOrderBy(pageable.getSort()), MemberDto.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // left join 이라 count는 회원 수와 같다, findAll(pageable, countStrategy)와 같은 캐시 키
+        return pageCountSupport.getPage(content, pageable, countStrategy, Member.class, null,
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+    // 허용한 속성만 정렬, 그 외는 UnsupportedSortException (요청 값이 JPQL에 그대로 들어가지 않게)
+    private static String memberDtoOrderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String path = MEMBER_DTO_SORT.get(order.getProperty());
+            if (path == null) {
+                throw new UnsupportedSortException(order.getProperty(), MEMBER_DTO_SORT.keySet());
+            }
+            orders.add((order.isIgnoreCase() ? "lower(" + path + ")" : path) + (order.isAscending() ? " asc" : " desc"));
+        }
+        return orders.isEmpty() ? "" : " order by " + String.join(", ", orders);
+    }
+
+    @Override
+    public Page<MemberProjection> findByNativeProjection(Pageable pageable, CountStrategy countStrategy) {
+        // native query는 정렬 조건을 그대로 붙일 수 없어서 member_id 순으로 고정
+        @SuppressWarnings("unchecked")
+        List<Tuple> rows = em.createNativeQuery("select m.member_id as id, m.user_name as userName, t.name as teamName " +
+                        "from member m left join team t on m.team_id = t.team_id " +
+                        "order by m.member_id", Tuple.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        List<MemberProjection> content = rows.stream()
+                .map(this::toProjection)
+                .collect(Collectors.toList());
+
+        return pageCountSupport.getPage(content, pageable, countStrategy, Member.class, null,
+                () -> ((Number) em.createNativeQuery("select count(*) from member").getSingleResult()).longValue());
+    }
+
+    // 잠금은 트랜잭션이 끝날 때 풀린다, 트랜잭션 밖에서 호출하면 조회 직후 풀리므로 막는다
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Member> findLockByUserName(String userName) {
+        return findLockByUserName(userName, LockTimeout.of(properties.getLock().getTimeout()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Member> findLockByUserName(String userName, LockTimeout timeout) {
+        return em.createQuery(FIND_LOCK_BY_USER_NAME, Member.class)
+                .setParameter("userName", userName)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", timeout.getHintValue())
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Member> claimBatch(Specification<Member> spec, int n) {
+        Assert.isTrue(n > 0, "n must be greater than 0");
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> query = cb.createQuery(Member.class);
+        Root<Member> root = query.from(Member.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id"))); // 오래된 작업부터
+
+        return em.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockTimeout.SKIP_LOCKED.getHintValue())
+                .setMaxResults(n)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        Query<?> update = em.createQuery("update versioned Member m set m.age = m.age + 1, " + // version도 +1
+                                                 "m.lastModifiedDate = :now, m.lastModifiedBy = :auditor " + // BulkUpdateSupport가 채운다
+                                                 "where m.age >= :age")
+                .unwrap(Query.class)
+                .setParameter("age", age);
+        return bulkUpdateSupport.executeUpdate(update, Member.class, m -> m.getAge() >= age, SyncMode.REFRESH);
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        Session session = em.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            int count = 0;
+            for (Member member : members) {
+                em.persist(member);
+                if (++count % batchSize == 0) {
+                    // 1차 캐시가 계속 커지지 않도록 batchSize 마다 flush + clear
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+    }
+
+    @Override
+    public <T> List<T> findProjectedByUserName(String userName, Class<T> type) {
+        return projectionCompiler.compile(Member.class, "m", type)
+                .getResultList(em, "m.userName = :userName", Collections.singletonMap("userName", userName));
+    }
+
+    @Override
+    public Map<String, String> getFragmentQueries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("MemberRepositoryCustom.findByNames", FIND_BY_NAMES);
+        queries.put("MemberRepositoryCustom.findPagingByAge", FIND_PAGING_BY_AGE);
+        queries.put("MemberRepositoryCustom.findPagingByAge.count", COUNT_BY_AGE);
+        queries.put("MemberRepositoryCustom.findMemberDtos", FIND_MEMBER_DTOS);
+        queries.put("MemberRepositoryCustom.findLockByUserName", FIND_LOCK_BY_USER_NAME);
+        return queries;
+    }
+
+    private MemberProjection toProjection(Tuple row) {
+        Map<String, Object> source = new HashMap<>();
+        source.put("id", row.get(0) == null ? null : ((Number) row.get(0)).longValue());
+        source.put("userName", row.get(1));
+        source.put("teamName", row.get(2));
+        return projectionFactory.createProjection(MemberProjection.class, source);
+    }
 }
@@ -0,0 +1,129 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.BaseEntity;
+import study.datajpa.entity.BaseTimeEntity;
+import study.datajpa.entity.JpaBaseEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 벌크 update 실행 후 영속성 컨텍스트 전체를 비우는(clearAutomatically) 대신
+ * 벌크 연산의 영향을 받은 영속 엔티티만 refresh 또는 detach 한다
+ *
+ * 벌크 update는 AuditListener를 거치지 않으므로 update 문에 :now, :auditor 파라미터가 있으면
+ * 엔티티 auditing과 같은 Clock, AuditorAware 값으로 채운다
+ * (update Member m set m.age = m.age + 1, m.lastModifiedDate = :now, m.lastModifiedBy = :auditor ...)
+ * auditing 컬럼이 있는 엔티티(BaseTimeEntity, JpaBaseEntity는 :now, BaseEntity는 :auditor도)에 파라미터가 빠져 있으면
+ * 수정일/수정자가 갱신되지 않으므로 실행하지 않고 IllegalArgumentException
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkUpdateSupport {
+
+    public static final String NOW = "now";
+    public static final String AUDITOR = "auditor";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final SecondLevelCacheSupport secondLevelCacheSupport;
+    private final PageCountSupport pageCountSupport;
+    private final Clock clock;
+    private final AuditorAware<String> auditorAware;
+
+    public enum SyncMode {
+        /** 영향받은 엔티티를 DB 값으로 다시 읽는다, 엔티티 당 select 1번 */
+        REFRESH,
+        /** 영향받은 엔티티를 준영속 상태로 만든다, 다음 조회 때 다시 읽는다 */
+        DETACH
+    }
+
+    /**
+     * @param affected 벌크 연산 대상 여부, 벌크 연산 실행 전 엔티티 상태로 판단한다
+     */
+    public <T> int executeUpdate(Query update, Class<T> entityType, Predicate<? super T> affected, SyncMode mode) {
+        checkAuditParameters(update, entityType);
+
+        // 변경 감지된 내용을 먼저 반영해야 벌크 연산 결과와 엔티티 상태가 어긋나지 않는다
+        em.flush();
+
+        List<T> targets = new ArrayList<>();
+        List<Serializable> targetIds = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                                                      .getPersistenceContextInternal()
+                                                      .reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            if (entry.getValue().getStatus() == Status.MANAGED
+                    && entityType.isInstance(entity)
+                    && affected.test(entityType.cast(entity))) {
+                targets.add(entityType.cast(entity));
+                targetIds.add(entry.getValue().getId());
+            }
+        }
+
+        bindAuditParameters(update);
+        int updatedCount = update.executeUpdate();
+        // 벌크 연산은 엔티티 이벤트가 없으므로 캐싱된 count(CACHED, ESTIMATED)를 버린다
+        pageCountSupport.evict(entityType);
+
+        for (int i = 0; i < targets.size(); i++) {
+            secondLevelCacheSupport.evict(entityType, targetIds.get(i));
+            if (mode == SyncMode.REFRESH) {
+                em.refresh(targets.get(i));
+            } else {
+                em.detach(targets.get(i));
+            }
+        }
+        return updatedCount;
+    }
+
+    private void checkAuditParameters(Query update, Class<?> entityType) {
+        List<String> missing = new ArrayList<>();
+        if ((BaseTimeEntity.class.isAssignableFrom(entityType) || JpaBaseEntity.class.isAssignableFrom(entityType))
+                && !hasParameter(update, NOW)) {
+            missing.add(":" + NOW);
+        }
+        if (BaseEntity.class.isAssignableFrom(entityType) && !hasParameter(update, AUDITOR)) {
+            missing.add(":" + AUDITOR);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException(entityType.getSimpleName() + " has auditing columns, bulk update must set them with "
+                    + missing);
+        }
+    }
+
+    private boolean hasParameter(Query update, String name) {
+        for (Parameter<?> parameter : update.getParameters()) {
+            if (name.equals(parameter.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void bindAuditParameters(Query update) {
+        for (Parameter<?> parameter : update.getParameters()) {
+            if (NOW.equals(parameter.getName())) {
+                update.setParameter(NOW, LocalDateTime.now(clock));
+            } else if (AUDITOR.equals(parameter.getName())) {
+                update.setParameter(AUDITOR, auditorAware.getCurrentAuditor().orElse(null));
+            }
+        }
+    }
+}
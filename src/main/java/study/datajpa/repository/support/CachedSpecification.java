@@ -0,0 +1,145 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JPQL 조각을 함께 가진 Specification
+ *
+ * - JPQL 조각 : {root}는 루트 별칭, ?는 바인드 값 자리
+ * - shape : 조인과 조건 JPQL 조각 그대로, 바인드 값은 포함하지 않는다 (ex. "inner join {root}.team t where ({root}.userName = ?) and (t.name = ?)")
+ *
+ * shape와 JPQL(from 뒤)은 of/combine에서 한 번만 만들어 둔다. 조회 시에는 엔티티 이름만 앞에 붙이고 값을 바인딩한다.
+ * Specification도 그대로 구현하므로 JpaSpecificationExecutor에도 넘길 수 있다.
+ *
+ * 조인 별칭은 조각에 직접 적는다 (ex. "t"). 같은 조인은 같은 문자열로 적어야 하나로 합쳐지고,
+ * 서로 다른 조인이 같은 별칭을 쓰거나 루트 별칭(e)을 쓰면 combine에서 IllegalArgumentException이 발생한다.
+ */
+public final class CachedSpecification<T> implements Specification<T> {
+
+    static final String ROOT_ALIAS = "e";
+
+    private static final CachedSpecification<?> EMPTY =
+            new CachedSpecification<>(Collections.emptySet(), null, Collections.emptyList(), (root, query, cb) -> null);
+
+    private final Set<String> joins;
+    private final String predicate; // 조건이 없으면 null
+    private final List<Object> values;
+    private final Specification<T> criteria;
+    private final String shape;
+    private final String jpqlFrom; // "select e from " + 엔티티 이름 뒤에 붙는 부분
+
+    private CachedSpecification(Set<String> joins, String predicate, List<Object> values, Specification<T> criteria) {
+        this.joins = joins;
+        this.predicate = predicate;
+        this.values = values;
+        this.criteria = criteria;
+        String joinPart = String.join(" ", joins);
+        this.shape = predicate == null ? joinPart : joinPart + " where " + predicate;
+        this.jpqlFrom = renderFrom(joins, predicate);
+    }
+
+    /**
+     * @param join      필요한 조인 (ex. "inner join {root}.team t"), 없으면 null
+     * @param predicate 조건 (ex. "{root}.userName = ?"), 바인드 값 자리는 하나
+     * @param criteria  같은 조건의 Criteria 버전
+     */
+    public static <T> CachedSpecification<T> of(String join, String predicate, Object value, Specification<T> criteria) {
+        Set<String> joins = join == null ? Collections.emptySet() : Collections.singleton(join);
+        checkJoinAliases(joins);
+        return new CachedSpecification<>(joins, predicate, Collections.singletonList(value), criteria);
+    }
+
+    // 조건 없음 (모든 회원)
+    @SuppressWarnings("unchecked")
+    public static <T> CachedSpecification<T> empty() {
+        return (CachedSpecification<T>) EMPTY;
+    }
+
+    public CachedSpecification<T> and(CachedSpecification<T> other) {
+        return combine(other, "and");
+    }
+
+    public CachedSpecification<T> or(CachedSpecification<T> other) {
+        return combine(other, "or");
+    }
+
+    private CachedSpecification<T> combine(CachedSpecification<T> other, String operator) {
+        if (other.predicate == null) {
+            return this;
+        }
+        if (predicate == null) {
+            return other;
+        }
+
+        Set<String> combinedJoins = new LinkedHashSet<>(joins);
+        combinedJoins.addAll(other.joins);
+        checkJoinAliases(combinedJoins);
+        List<Object> combinedValues = new ArrayList<>(values);
+        combinedValues.addAll(other.values);
+
+        Specification<T> combinedCriteria = "and".equals(operator) ? criteria.and(other.criteria) : criteria.or(other.criteria);
+        return new CachedSpecification<>(combinedJoins, "(" + predicate + ") " + operator + " (" + other.predicate + ")",
+                combinedValues, combinedCriteria);
+    }
+
+    // 조인 별칭은 조인 문자열의 마지막 단어
+    private static void checkJoinAliases(Set<String> joins) {
+        Set<String> aliases = new HashSet<>();
+        aliases.add(ROOT_ALIAS);
+        for (String join : joins) {
+            String alias = join.substring(join.trim().lastIndexOf(' ') + 1).trim();
+            if (!aliases.add(alias)) {
+                throw new IllegalArgumentException("Join alias '" + alias + "' is already used: " + joins);
+            }
+        }
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        return criteria.toPredicate(root, query, criteriaBuilder);
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    // select e from Entity e [joins] [where predicate], ?는 :p1, :p2 ... 로 바뀌어 있다
+    String toJpql(String entityName) {
+        return "select " + ROOT_ALIAS + " from " + entityName + jpqlFrom;
+    }
+
+    private static String renderFrom(Set<String> joins, String predicate) {
+        StringBuilder jpql = new StringBuilder(" ").append(ROOT_ALIAS);
+        for (String join : joins) {
+            jpql.append(' ').append(join.replace("{root}", ROOT_ALIAS));
+        }
+        if (predicate != null) {
+            jpql.append(" where ");
+            String where = predicate.replace("{root}", ROOT_ALIAS);
+            int parameter = 0;
+            for (char c : where.toCharArray()) {
+                if (c == '?') {
+                    jpql.append(":p").append(++parameter);
+                } else {
+                    jpql.append(c);
+                }
+            }
+        }
+        return jpql.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.repository.support;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ProjectionCompiler가 만든 projection 조회 쿼리와 매퍼
+ *
+ * - 클래스(DTO) : select new ... 생성자 표현식
+ * - 인터페이스 : Tuple 조회 후 미리 만든 매퍼로 프록시 생성
+ */
+public class CompiledProjection<T> {
+
+    private final Class<T> type;
+    private final String query; // select ... from ... (where 절 제외)
+    private final Function<Tuple, T> mapper; // 생성자 표현식이면 null
+
+    CompiledProjection(Class<T> type, String query, Function<Tuple, T> mapper) {
+        this.type = type;
+        this.query = query;
+        this.mapper = mapper;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * @param where 루트 별칭으로 작성한 조건 (ex. "m.userName = :userName"), 없으면 null
+     */
+    public List<T> getResultList(EntityManager em, String where, Map<String, ?> parameters) {
+        String jpql = where == null ? query : query + " where " + where;
+
+        if (mapper == null) {
+            TypedQuery<T> typedQuery = em.createQuery(jpql, type);
+            parameters.forEach(typedQuery::setParameter);
+            return typedQuery.getResultList();
+        }
+
+        TypedQuery<Tuple> tupleQuery = em.createQuery(jpql, Tuple.class);
+        parameters.forEach(tupleQuery::setParameter);
+        List<Tuple> rows = tupleQuery.getResultList();
+
+        List<T> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(mapper.apply(row));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.repository.support;
+
+/**
+ * Page 조회 시 total count를 구하는 방식
+ */
+public enum CountStrategy {
+
+    /** 매 요청마다 count 쿼리 실행 */
+    EXACT,
+
+    /** 조건(predicate)별로 count 결과를 TTL 동안 캐싱 */
+    CACHED,
+
+    /** 엔티티별로 유지되는 카운터 값을 사용, 조건이 있는 쿼리는 CACHED로 동작 */
+    ESTIMATED
+}
@@ -0,0 +1,102 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.config.DataJpaProperties;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 엔티티별 row 수를 메모리에 유지하는 카운터 (CountStrategy.ESTIMATED)
+ *
+ * 처음 조회할 때 count 쿼리로 값을 맞추고, 이후에는 커밋된 insert/delete 이벤트로 증감한다.
+ * 벌크 연산(JPQL update/delete, native query)은 이벤트가 발생하지 않기 때문에
+ * estimateResyncInterval 주기로 다시 count 쿼리를 실행해서 오차를 보정한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityRowCounter implements PostCommitInsertEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final DataJpaProperties properties;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                                            .getServiceRegistry()
+                                            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public long estimate(Class<?> entityType, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        Counter counter = counters.get(entityType.getName());
+        if (counter == null || now - counter.syncedAt > properties.getCount().getEstimateResyncInterval().toNanos()) {
+            counter = new Counter(exactCount.getAsLong(), now);
+            counters.put(entityType.getName(), counter);
+        }
+        return Math.max(0L, counter.value.get());
+    }
+
+    public void reset(Class<?> entityType) {
+        counters.remove(entityType.getName());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        adjust(event.getPersister().getEntityName(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        adjust(event.getPersister().getEntityName(), -1);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // 롤백된 insert는 카운트하지 않는다
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // 롤백된 delete는 카운트하지 않는다
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void adjust(String entityName, long delta) {
+        Counter counter = counters.get(entityName);
+        if (counter != null) { // 아직 한 번도 조회하지 않은 엔티티는 첫 조회 때 DB 값으로 맞춘다
+            counter.value.addAndGet(delta);
+        }
+    }
+
+    private static class Counter {
+
+        private final AtomicLong value;
+        private final long syncedAt;
+
+        Counter(long value, long syncedAt) {
+            this.value = new AtomicLong(value);
+            this.syncedAt = syncedAt;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package study.datajpa.repository.support;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Query by Example 실행
+ *
+ * 1. probe를 (경로, 값) 조건 목록으로 정규화한다, 인덱스를 탈 수 있는 조건이 앞에 오도록 정렬
+ *    (id -> 인덱스 선두 컬럼 -> 인덱스 컬럼 -> 나머지, 같은 순위는 경로 이름 순)
+ * 2. 조건의 모양(경로, 경로별 대소문자 무시 여부) 별로 JPQL을 한 번만 만든다
+ * 3. Hibernate 쿼리 캐시(cacheRegion)에 결과를 저장한다.
+ *    Member/Team에 쓰기가 일어나면 Hibernate가 update timestamps로 해당 결과를 무효화한다
+ *
+ * 전부 일치(matching) + 정확히 일치(EXACT/DEFAULT) + null 무시만 지원하고,
+ * 그 외의 ExampleMatcher는 스프링 데이터 JPA와 같은 Criteria 방식으로 실행한다 (캐시 X)
+ * 경로별 설정(withIgnoreCase("userName"), exact() 등)도 정확히 일치 + 값 변환 없음이면 지원한다
+ */
+@Component
+public class ExampleQuerySupport {
+
+    private static final String ALIAS = "e";
+
+    private final ConcurrentMap<String, String> queries = new ConcurrentHashMap<>();
+
+    public <T> List<T> findAll(EntityManager em, Example<T> example, String cacheRegion) {
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        if (!supports(example.getMatcher(), accessor)) {
+            return findAllByCriteria(em, example);
+        }
+
+        Class<T> type = example.getProbeType();
+        EntityType<T> entity = em.getMetamodel().entity(type);
+
+        List<Condition> conditions = new ArrayList<>();
+        collect(em, entity, example.getProbe(), "", accessor, conditions);
+        conditions.sort(Comparator.comparingInt((Condition c) -> c.rank).thenComparing(c -> c.path));
+
+        String shape = entity.getName() + "|" + conditions.stream()
+                                                          .map(c -> c.ignoreCase ? "lower(" + c.path + ")" : c.path)
+                                                          .collect(Collectors.joining(","));
+        String jpql = queries.computeIfAbsent(shape, key -> render(entity.getName(), conditions));
+
+        TypedQuery<T> query = em.createQuery(jpql, type)
+                .setHint("org.hibernate.cacheable", true)
+                .setHint("org.hibernate.cacheRegion", cacheRegion);
+        for (int i = 0; i < conditions.size(); i++) {
+            query.setParameter("p" + (i + 1), conditions.get(i).value);
+        }
+        return query.getResultList();
+    }
+
+    private boolean supports(ExampleMatcher matcher, ExampleMatcherAccessor accessor) {
+        return matcher.isAllMatching()
+                && matcher.getNullHandler() == ExampleMatcher.NullHandler.IGNORE
+                && isExact(matcher.getDefaultStringMatcher())
+                && accessor.getPropertySpecifiers().stream().allMatch(this::supports);
+    }
+
+    // 대소문자 무시 여부는 조건마다 반영한다
+    private boolean supports(ExampleMatcher.PropertySpecifier specifier) {
+        return (specifier.getStringMatcher() == null || isExact(specifier.getStringMatcher()))
+                && specifier.getPropertyValueTransformer() == ExampleMatcher.NoOpPropertyValueTransformer.INSTANCE;
+    }
+
+    private boolean isExact(ExampleMatcher.StringMatcher stringMatcher) {
+        return stringMatcher == ExampleMatcher.StringMatcher.DEFAULT || stringMatcher == ExampleMatcher.StringMatcher.EXACT;
+    }
+
+    // null이 아닌 값만 조건으로, to-one 연관관계는 inner join 후 연관 엔티티의 값 (스프링 데이터 JPA QBE와 동일), 컬렉션은 무시
+    private void collect(EntityManager em, ManagedType<?> type, Object probe, String path,
+                         ExampleMatcherAccessor accessor, List<Condition> conditions) {
+        DirectFieldAccessFallbackBeanWrapper wrapper = new DirectFieldAccessFallbackBeanWrapper(probe);
+        IndexRanking ranking = new IndexRanking(type);
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            String attributePath = path.isEmpty() ? attribute.getName() : path + "." + attribute.getName();
+            if (accessor.isIgnoredPath(attributePath)) {
+                continue;
+            }
+            Object value = wrapper.getPropertyValue(attribute.getName());
+            if (value == null) {
+                continue;
+            }
+
+            switch (attribute.getPersistentAttributeType()) {
+                case MANY_TO_ONE:
+                case ONE_TO_ONE:
+                    collect(em, em.getMetamodel().managedType(attribute.getJavaType()), value, attributePath, accessor, conditions);
+                    break;
+                default:
+                    boolean ignoreCase = value instanceof String && accessor.isIgnoreCaseForPath(attributePath);
+                    conditions.add(new Condition(attributePath, value, ignoreCase, ranking.rank(attribute)));
+            }
+        }
+    }
+
+    // select e from Member e inner join e.team j1 where e.userName = :p1 and j1.name = :p2
+    private String render(String entityName, List<Condition> conditions) {
+        Map<String, String> joins = new LinkedHashMap<>(); // 연관관계 경로 -> 별칭
+        List<String> predicates = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            String path = conditions.get(i).path;
+            int dot = path.lastIndexOf('.');
+            String owner = dot < 0 ? ALIAS : joins.computeIfAbsent(path.substring(0, dot), p -> "j" + (joins.size() + 1));
+            String property = owner + "." + path.substring(dot + 1);
+            String parameter = ":p" + (i + 1);
+            predicates.add(conditions.get(i).ignoreCase
+                    ? "lower(" + property + ") = lower(" + parameter + ")"
+                    : property + " = " + parameter);
+        }
+
+        StringBuilder jpql = new StringBuilder("select ").append(ALIAS).append(" from ").append(entityName).append(' ').append(ALIAS);
+        joins.forEach((path, alias) -> jpql.append(" inner join ").append(ALIAS).append('.').append(path).append(' ').append(alias));
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        return jpql.toString();
+    }
+
+    private <T> List<T> findAllByCriteria(EntityManager em, Example<T> example) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(example.getProbeType());
+        Root<T> root = query.from(example.getProbeType());
+        Predicate predicate = QueryByExamplePredicateBuilder.getPredicate(root, cb, example);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return em.createQuery(query.select(root)).getResultList();
+    }
+
+    private static class Condition {
+
+        private final String path;
+        private final Object value;
+        private final boolean ignoreCase;
+        private final int rank;
+
+        Condition(String path, Object value, boolean ignoreCase, int rank) {
+            this.path = path;
+            this.value = value;
+            this.ignoreCase = ignoreCase;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * @Table(indexes)로 선언된 인덱스 기준 순위, 작을수록 먼저
+     * 컬럼 이름은 스프링 부트 기본 naming 전략(snake_case)으로 비교한다
+     */
+    private static class IndexRanking {
+
+        private final List<List<String>> indexes = new ArrayList<>();
+
+        IndexRanking(ManagedType<?> type) {
+            Table table = AnnotationUtils.findAnnotation(type.getJavaType(), Table.class);
+            if (table != null) {
+                for (Index index : table.indexes()) {
+                    List<String> columns = new ArrayList<>();
+                    for (String column : index.columnList().split(",")) {
+                        columns.add(column.trim().split("\\s+")[0].toLowerCase(Locale.ROOT)); // "age desc" -> age
+                    }
+                    indexes.add(columns);
+                }
+            }
+        }
+
+        int rank(SingularAttribute<?, ?> attribute) {
+            if (attribute.isId()) {
+                return 0;
+            }
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                return 3;
+            }
+            String column = snakeCase(attribute.getName());
+            if (indexes.stream().anyMatch(columns -> columns.get(0).equals(column))) {
+                return 1;
+            }
+            if (indexes.stream().anyMatch(columns -> columns.contains(column))) {
+                return 2;
+            }
+            return 3;
+        }
+
+        private static String snakeCase(String name) {
+            return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.repository.support;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.datajpa.config.DataJpaProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * in 절 조회를 datajpa.query.in-clause-max-size 단위로 나눠서 실행하고, 결과를 요청한 키 순서대로 합친다
+ *
+ * 파라미터 개수는 hibernate.query.in_clause_parameter_padding 설정으로 2의 거듭제곱에 맞춰지므로
+ * 키가 몇 개든 SQL(실행 계획) 종류는 log2(max-size)개 정도로 유지된다.
+ */
+@Component
+public class InClauseSupport {
+
+    private static final String INVALID_MAX_SIZE = "datajpa.query.in-clause-max-size must be greater than 0"; // 0이면 무한 루프
+
+    private final DataJpaProperties properties;
+
+    public InClauseSupport(DataJpaProperties properties) {
+        Assert.isTrue(properties.getQuery().getInClauseMaxSize() > 0, INVALID_MAX_SIZE); // 잘못된 설정이면 시작하지 않는다
+        this.properties = properties;
+    }
+
+    /**
+     * @param keys         조회할 키, 중복과 null은 제외한다
+     * @param keyExtractor 결과에서 키를 꺼내는 함수
+     * @param query        키 목록(chunk) 하나로 in 절 조회
+     */
+    public <K, T> List<T> findAllIn(Collection<K> keys, Function<T, K> keyExtractor, Function<List<K>, List<T>> query) {
+        List<K> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinctKeys.remove(null);
+        if (distinctKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int maxSize = properties.getQuery().getInClauseMaxSize();
+        Assert.isTrue(maxSize > 0, INVALID_MAX_SIZE); // 실행 중에 바뀐 경우
+        Map<K, List<T>> resultsByKey = new HashMap<>();
+        for (int from = 0; from < distinctKeys.size(); from += maxSize) {
+            List<K> chunk = distinctKeys.subList(from, Math.min(from + maxSize, distinctKeys.size()));
+            for (T result : query.apply(chunk)) {
+                resultsByKey.computeIfAbsent(keyExtractor.apply(result), key -> new ArrayList<>()).add(result);
+            }
+        }
+
+        // 요청한 키 순서, 같은 키의 결과는 조회된 순서
+        List<T> results = new ArrayList<>();
+        for (K key : distinctKeys) {
+            results.addAll(resultsByKey.getOrDefault(key, Collections.emptyList()));
+        }
+        return results;
+    }
+}
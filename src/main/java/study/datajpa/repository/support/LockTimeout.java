@@ -0,0 +1,54 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.LockOptions;
+
+import java.time.Duration;
+
+/**
+ * 비관적 락 조회의 잠금 대기 방식, javax.persistence.lock.timeout 힌트 값(ms)으로 바뀐다
+ *
+ * H2에서는 H2LockingDialect가 nowait / wait n / skip locked 로 바꿔준다.
+ */
+public final class LockTimeout {
+
+    // 잠긴 row가 있으면 바로 실패
+    public static final LockTimeout NO_WAIT = new LockTimeout(LockOptions.NO_WAIT);
+    // 잠긴 row는 건너뛴다 (작업 큐)
+    public static final LockTimeout SKIP_LOCKED = new LockTimeout(LockOptions.SKIP_LOCKED);
+    // DB 기본값만큼 대기
+    public static final LockTimeout WAIT_FOREVER = new LockTimeout(LockOptions.WAIT_FOREVER);
+
+    private final int hintValue;
+
+    private LockTimeout(int hintValue) {
+        this.hintValue = hintValue;
+    }
+
+    public static LockTimeout of(Duration timeout) {
+        if (timeout.isZero()) {
+            return NO_WAIT;
+        }
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("lock timeout must not be negative : " + timeout);
+        }
+        return new LockTimeout((int) Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+    }
+
+    public int getHintValue() {
+        return hintValue;
+    }
+
+    @Override
+    public String toString() {
+        if (hintValue == LockOptions.NO_WAIT) {
+            return "NO_WAIT";
+        }
+        if (hintValue == LockOptions.SKIP_LOCKED) {
+            return "SKIP_LOCKED";
+        }
+        if (hintValue == LockOptions.WAIT_FOREVER) {
+            return "WAIT_FOREVER";
+        }
+        return hintValue + "ms";
+    }
+}
@@ -0,0 +1,83 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import study.datajpa.config.DataJpaProperties;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * CountStrategy에 따라 Page의 total count를 구한다
+ *
+ * 컨텐츠가 한 페이지를 다 채우지 못하면 PageableExecutionUtils가 count 쿼리 자체를 생략한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageCountSupport {
+
+    private final EntityRowCounter rowCounter;
+    private final DataJpaProperties properties;
+    private final ConcurrentMap<String, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
+    /**
+     * @param predicate 조건을 식별하는 키 (ex. "age=10"), 조건이 없는 전체 count면 null
+     */
+    public <T> Page<T> getPage(List<T> content, Pageable pageable, CountStrategy strategy,
+                               Class<?> entityType, String predicate, LongSupplier countQuery) {
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(strategy, entityType, predicate, countQuery));
+    }
+
+    public long count(CountStrategy strategy, Class<?> entityType, String predicate, LongSupplier countQuery) {
+        switch (strategy) {
+            case CACHED:
+                return cachedCount(entityType, predicate, countQuery);
+            case ESTIMATED:
+                return predicate == null
+                        ? rowCounter.estimate(entityType, countQuery)
+                        : cachedCount(entityType, predicate, countQuery);
+            default:
+                return countQuery.getAsLong();
+        }
+    }
+
+    // 엔티티의 캐싱된 count를 모두 버린다, 이벤트가 발생하지 않는 벌크 연산 후 호출 (BulkUpdateSupport)
+    public void evict(Class<?> entityType) {
+        String prefix = entityType.getName() + ":";
+        cachedCounts.keySet().removeIf(key -> key.startsWith(prefix));
+        rowCounter.reset(entityType);
+    }
+
+    private long cachedCount(Class<?> entityType, String predicate, LongSupplier countQuery) {
+        String key = entityType.getName() + ":" + (predicate == null ? "" : predicate);
+        long now = System.nanoTime();
+
+        CachedCount cached = cachedCounts.get(key);
+        if (cached != null && now < cached.expiresAt) {
+            return cached.value;
+        }
+
+        if (cachedCounts.size() >= properties.getCount().getCacheMaxEntries()) {
+            cachedCounts.clear();
+        }
+        long value = countQuery.getAsLong();
+        cachedCounts.put(key, new CachedCount(value, now + properties.getCount().getCacheTtl().toNanos()));
+        return value;
+    }
+
+    private static class CachedCount {
+
+        private final long value;
+        private final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * projection 타입을 한 번만 분석해서 필요한 컬럼만 조회하는 쿼리로 만든다 (타입별로 캐싱)
+ *
+ * - 클래스(DTO) : 생성자 파라미터 이름 -> select new Dto(m.userName, ...)
+ * - 인터페이스(closed) : getter -> select m.userName, ...
+ * - 중첩 인터페이스 : 연관관계를 left join 해서 필요한 컬럼만 (ex. getTeam().getName() -> t1.name)
+ * - @Value(open) : SpEL에서 참조하는 target.* 컬럼만 조회, 식은 컴파일된 SpEL로 Map에 대해 평가한다
+ *   #{target.userName} 처럼 컬럼 하나뿐인 식은 SpEL 없이 값을 바로 읽는다
+ *   #{target.userName + ' ' + target.age} 같은 복합 식은 row마다 target Map을 만들어 SpEL로 평가한다 (MIXED 모드라 반복되면 바이트코드로 컴파일된다)
+ * - default 메서드 : MethodHandle로 인터페이스 구현을 호출한다 (DefaultMethodInvokingMethodInterceptor와 같은 방식)
+ *
+ * 컬렉션 연관관계는 row가 늘어나므로 지원하지 않는다.
+ */
+@Component
+public class ProjectionCompiler {
+
+    private static final Pattern TARGET_PATH = Pattern.compile("target((?:\\.\\w+)+)");
+    private static final Pattern SINGLE_TARGET_PATH = Pattern.compile("#\\{\\s*target(?:\\.\\w+)+\\s*}");
+
+    private final Metamodel metamodel;
+    private final ConcurrentMap<List<Object>, CompiledProjection<?>> cache = new ConcurrentHashMap<>();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+    private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+
+    public ProjectionCompiler(EntityManagerFactory emf) {
+        this.metamodel = emf.getMetamodel();
+        this.evaluationContext.addPropertyAccessor(new MapAccessor());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompiledProjection<T> compile(Class<?> rootType, String alias, Class<T> projectionType) {
+        return (CompiledProjection<T>) cache.computeIfAbsent(Arrays.asList(rootType, alias, projectionType),
+                key -> doCompile(rootType, alias, projectionType));
+    }
+
+    private <T> CompiledProjection<T> doCompile(Class<?> rootType, String alias, Class<T> projectionType) {
+        Selection selection = new Selection(metamodel.entity(rootType), alias);
+
+        if (projectionType.isInterface()) {
+            InterfaceMapper<T> mapper = new InterfaceMapper<>(projectionType, "", selection);
+            return new CompiledProjection<>(projectionType, selection.query(null), mapper);
+        }
+
+        Constructor<?> constructor = dtoConstructor(projectionType);
+        String[] names = parameterNames.getParameterNames(constructor);
+        if (names == null) {
+            throw new IllegalArgumentException("Cannot resolve constructor parameter names of " + projectionType.getName());
+        }
+        List<String> arguments = new ArrayList<>();
+        for (String name : names) {
+            arguments.add(selection.expression(name));
+        }
+        String select = "new " + projectionType.getName() + "(" + String.join(", ", arguments) + ")";
+        return new CompiledProjection<>(projectionType, selection.query(select), null);
+    }
+
+    private Constructor<?> dtoConstructor(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1) {
+            throw new IllegalArgumentException(type.getName() + " must declare exactly one public constructor");
+        }
+        return constructors[0];
+    }
+
+    private static boolean isNestedProjection(Class<?> type) {
+        return type.isInterface()
+                && !Collection.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type)
+                && !type.getName().startsWith("java.");
+    }
+
+    private static String propertyName(Method method) {
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return StringUtils.uncapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2) {
+            return StringUtils.uncapitalize(name.substring(2));
+        }
+        throw new IllegalArgumentException("Not a getter : " + method);
+    }
+
+    // 프록시에 바인딩하기 전의 default 메서드 핸들
+    private static MethodHandle defaultMethodHandle(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup;
+            try {
+                // Java 9+ : MethodHandles.privateLookupIn(declaringClass, lookup())
+                Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+                lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, declaringClass, MethodHandles.lookup());
+            } catch (NoSuchMethodException e) {
+                // Java 8 : private 생성자로 declaringClass 권한의 Lookup을 만든다
+                Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
+                constructor.setAccessible(true);
+                lookup = constructor.newInstance(declaringClass);
+            }
+            return lookup.unreflectSpecial(method, declaringClass);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot invoke default method " + method, e);
+        }
+    }
+
+    /**
+     * select 절과 join을 모은다, 같은 경로는 한 번만 조회한다
+     */
+    private class Selection {
+
+        private final EntityType<?> root;
+        private final String alias;
+        private final List<String> expressions = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>(); // path -> tuple index
+        private final Map<String, String> joinAliases = new HashMap<>(); // path -> join alias
+        private final List<String> joins = new ArrayList<>();
+
+        Selection(EntityType<?> root, String alias) {
+            this.root = root;
+            this.alias = alias;
+        }
+
+        int select(String path) {
+            return indexes.computeIfAbsent(path, p -> {
+                expressions.add(expression(p));
+                return expressions.size() - 1;
+            });
+        }
+
+        // userName -> m.userName, team.name -> t1.name (left join m.team t1)
+        String expression(String path) {
+            ManagedType<?> type = root;
+            String current = alias;
+            String joinPath = "";
+            for (String segment : path.split("\\.")) {
+                Attribute<?, ?> attribute = type.getAttribute(segment);
+                if (attribute.isCollection()) {
+                    throw new IllegalArgumentException("Collection association is not supported in projection : " + path);
+                }
+                joinPath = joinPath.isEmpty() ? segment : joinPath + "." + segment;
+                if (attribute.isAssociation()) {
+                    String parent = current;
+                    current = joinAliases.computeIfAbsent(joinPath, p -> {
+                        String joinAlias = "t" + (joinAliases.size() + 1);
+                        joins.add("left join " + parent + "." + segment + " " + joinAlias);
+                        return joinAlias;
+                    });
+                    type = metamodel.managedType(attribute.getJavaType());
+                } else {
+                    current = current + "." + segment;
+                    if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+                        type = metamodel.embeddable(attribute.getJavaType());
+                    }
+                }
+            }
+            return current;
+        }
+
+        // select 가 null이면 select()로 모은 컬럼
+        String query(String select) {
+            StringBuilder query = new StringBuilder("select ")
+                    .append(select != null ? select : String.join(", ", expressions))
+                    .append(" from ").append(root.getName()).append(' ').append(alias);
+            for (String join : joins) {
+                query.append(' ').append(join);
+            }
+            return query.toString();
+        }
+    }
+
+    /**
+     * 인터페이스 projection 매퍼, getter 마다 값을 꺼내는 함수를 미리 만들어 둔다
+     */
+    private class InterfaceMapper<T> implements Function<Tuple, T> {
+
+        private final Class<T> type;
+        private final boolean nested;
+        private final Map<Method, Integer> slots = new HashMap<>();
+        private final Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+        private final List<Function<Tuple, Object>> accessors = new ArrayList<>();
+        private final Set<Integer> indexes = new LinkedHashSet<>(); // 중첩 projection null 판단용
+
+        InterfaceMapper(Class<T> type, String prefix, Selection selection) {
+            this.type = type;
+            this.nested = !prefix.isEmpty();
+            for (Method method : type.getMethods()) {
+                if (method.isDefault()) {
+                    defaultMethods.put(method, defaultMethodHandle(method));
+                    continue;
+                }
+                if (method.getParameterCount() > 0 || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                slots.put(method, accessors.size());
+                accessors.add(accessor(method, prefix, selection));
+            }
+        }
+
+        private Function<Tuple, Object> accessor(Method method, String prefix, Selection selection) {
+            Value value = method.getAnnotation(Value.class);
+            if (value != null) {
+                return spelAccessor(value.value(), method.getReturnType(), prefix, selection);
+            }
+
+            String path = prefix + propertyName(method);
+            if (isNestedProjection(method.getReturnType())) {
+                InterfaceMapper<?> nested = new InterfaceMapper<>(method.getReturnType(), path + ".", selection);
+                return nested::apply;
+            }
+
+            int index = selection.select(path);
+            indexes.add(index);
+            return row -> row.get(index);
+        }
+
+        // #{target.userName + ' ' + target.age} -> userName, age 만 조회, 식은 {target={userName=.., age=..}} 에 대해 평가
+        private Function<Tuple, Object> spelAccessor(String template, Class<?> returnType, String prefix, Selection selection) {
+            Map<String, Integer> paths = new LinkedHashMap<>();
+            Matcher matcher = TARGET_PATH.matcher(template);
+            while (matcher.find()) {
+                String path = matcher.group(1).substring(1);
+                int index = selection.select(prefix + path);
+                indexes.add(index);
+                paths.put(path, index);
+            }
+            Expression expression = parser.parseExpression(template, ParserContext.TEMPLATE_EXPRESSION);
+            Class<?> resultType = ClassUtils.resolvePrimitiveIfNecessary(returnType);
+
+            // #{target.age} : 타입 변환이 필요할 때만 SpEL로 평가한다
+            if (SINGLE_TARGET_PATH.matcher(template).matches()) {
+                int index = paths.values().iterator().next();
+                return row -> {
+                    Object value = row.get(index);
+                    return value == null || resultType.isInstance(value) ? value : evaluate(expression, resultType, paths, row);
+                };
+            }
+            return row -> evaluate(expression, resultType, paths, row);
+        }
+
+        private Object evaluate(Expression expression, Class<?> resultType, Map<String, Integer> paths, Tuple row) {
+            Map<String, Object> target = new HashMap<>();
+            paths.forEach((path, index) -> put(target, path, row.get(index)));
+            return expression.getValue(evaluationContext, Collections.singletonMap("target", target), resultType);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void put(Map<String, Object> target, String path, Object value) {
+            int dot = path.indexOf('.');
+            if (dot < 0) {
+                target.put(path, value);
+                return;
+            }
+            Map<String, Object> child = (Map<String, Object>) target.computeIfAbsent(path.substring(0, dot), k -> new HashMap<>());
+            put(child, path.substring(dot + 1), value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T apply(Tuple row) {
+            // left join 대상이 없으면 중첩 projection 자체가 null
+            if (nested && indexes.stream().allMatch(index -> row.get(index) == null)) {
+                return null;
+            }
+
+            Object[] values = new Object[accessors.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = accessors.get(i).apply(row);
+            }
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new ProjectionHandler(type, slots, defaultMethods, values));
+        }
+    }
+
+    private static class ProjectionHandler implements InvocationHandler {
+
+        private final Class<?> type;
+        private final Map<Method, Integer> slots;
+        private final Map<Method, MethodHandle> defaultMethods;
+        private final Object[] values;
+
+        ProjectionHandler(Class<?> type, Map<Method, Integer> slots, Map<Method, MethodHandle> defaultMethods, Object[] values) {
+            this.type = type;
+            this.slots = slots;
+            this.defaultMethods = defaultMethods;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer slot = slots.get(method);
+            if (slot != null) {
+                return values[slot];
+            }
+            MethodHandle defaultMethod = defaultMethods.get(method);
+            if (defaultMethod != null) {
+                return args == null ? defaultMethod.invoke(proxy) : defaultMethod.bindTo(proxy).invokeWithArguments(args);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + slots.entrySet().stream()
+                            .map(e -> propertyName(e.getKey()) + "=" + values[e.getValue()])
+                            .collect(Collectors.joining(", ", "{", "}"));
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hibernate 2차 캐시 region 통계 조회 및 eviction
+ *
+ * JPQL 벌크 연산(bulkAgePlus 등)은 Hibernate가 대상 엔티티 region 전체를 자동으로 무효화 한다.
+ * native 벌크 쿼리는 모든 region을 무효화 하므로 가능하면 JPQL을 사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheSupport {
+
+    private final EntityManagerFactory emf;
+
+    public Map<String, Map<String, Long>> statistics() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hit", region.getHitCount());
+            values.put("miss", region.getMissCount());
+            values.put("put", region.getPutCount());
+            values.put("size", region.getElementCountInMemory());
+            result.put(regionName, values);
+        }
+
+        Map<String, Long> total = new LinkedHashMap<>();
+        total.put("hit", statistics.getSecondLevelCacheHitCount());
+        total.put("miss", statistics.getSecondLevelCacheMissCount());
+        total.put("put", statistics.getSecondLevelCachePutCount());
+        total.put("queryHit", statistics.getQueryCacheHitCount());
+        total.put("queryMiss", statistics.getQueryCacheMissCount());
+        result.put("_total", total);
+        return result;
+    }
+
+    public void evictRegion(String regionName) {
+        cache().evictRegion(regionName);
+    }
+
+    public void evict(Class<?> entityType) {
+        cache().evictEntityData(entityType);
+    }
+
+    public void evict(Class<?> entityType, Object id) {
+        cache().evictEntityData(entityType, id);
+    }
+
+    private Cache cache() {
+        return emf.getCache().unwrap(Cache.class);
+    }
+}
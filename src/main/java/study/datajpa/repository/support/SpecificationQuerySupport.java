@@ -0,0 +1,29 @@
+package study.datajpa.repository.support;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * CachedSpecification을 미리 만들어 둔 JPQL로 조회한다
+ *
+ * JpaSpecificationExecutor는 호출마다 Criteria 트리를 만들고 Hibernate가 이를 다시 JPQL로 렌더링한다.
+ * 같은 모양의 조건은 같은 JPQL 문자열이 되므로 Hibernate 쿼리 플랜 캐시(hibernate.query.plan_cache_max_size)가 그대로 재사용된다.
+ * 별도의 맵은 두지 않는다. 크기 제한은 플랜 캐시가 맡는다.
+ */
+@Component
+public class SpecificationQuerySupport {
+
+    public <T> List<T> findAll(EntityManager em, Class<T> entityType, CachedSpecification<T> spec) {
+        String entityName = em.getMetamodel().entity(entityType).getName();
+
+        TypedQuery<T> query = em.createQuery(spec.toJpql(entityName), entityType);
+        List<Object> values = spec.getValues();
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter("p" + (i + 1), values.get(i));
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * 정렬할 수 없는 속성으로 조회한 경우 (요청 값이 JPQL에 그대로 들어가지 않게 허용한 속성만 정렬한다)
+ *
+ * IllegalArgumentException이 아니므로 리포지토리 예외 변환(InvalidDataAccessApiUsageException)을 거치지 않는다.
+ * 컨트롤러는 이 예외만 400으로 바꾼다.
+ */
+@Getter
+public class UnsupportedSortException extends RuntimeException {
+
+    private final String property;
+    private final Set<String> sortableProperties;
+
+    public UnsupportedSortException(String property, Set<String> sortableProperties) {
+        super("Unsupported sort property: " + property + ", sortable properties are " + sortableProperties);
+        this.property = property;
+        this.sortableProperties = sortableProperties;
+    }
+}
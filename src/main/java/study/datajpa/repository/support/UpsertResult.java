@@ -0,0 +1,28 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * bulk upsert 결과, 새로 등록된 건수와 이미 있어서 수정된 건수
+ */
+@Getter
+@ToString
+public class UpsertResult {
+
+    private final int inserted;
+    private final int updated;
+
+    public UpsertResult(int inserted, int updated) {
+        this.inserted = inserted;
+        this.updated = updated;
+    }
+
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated);
+    }
+
+    public int getTotal() {
+        return inserted + updated;
+    }
+}
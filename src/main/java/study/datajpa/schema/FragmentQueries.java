@@ -0,0 +1,14 @@
+package study.datajpa.schema;
+
+import java.util.Map;
+
+/**
+ * 리포지토리 구현 조각(MemberRepositoryImpl 등)이 EntityManager로 직접 만드는 JPQL을 QueryPlanVerifier에 등록한다
+ *
+ * 조건을 호출하는 쪽에서 받는 쿼리(claimBatch의 Specification 등)는 모양이 정해져 있지 않아 등록할 수 없다.
+ */
+public interface FragmentQueries {
+
+    // 이름 (ex. MemberRepositoryCustom.findByNames) -> JPQL
+    Map<String, String> getFragmentQueries();
+}
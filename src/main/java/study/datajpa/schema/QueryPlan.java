@@ -0,0 +1,24 @@
+package study.datajpa.schema;
+
+import lombok.Getter;
+
+/**
+ * 선언된 쿼리(@Query, @NamedQuery) 하나의 실행 계획
+ */
+@Getter
+public class QueryPlan {
+
+    private final String name; // 리포지토리 메서드 또는 named query 이름
+    private final String sql;
+    private final String plan; // EXPLAIN 결과, 실패하면 null
+    private final String error;
+    private final boolean tableScan; // where 조건이 있는데 인덱스 없이 전체 스캔
+
+    public QueryPlan(String name, String sql, String plan, String error, boolean tableScan) {
+        this.name = name;
+        this.sql = sql;
+        this.plan = plan;
+        this.error = error;
+        this.tableScan = tableScan;
+    }
+}
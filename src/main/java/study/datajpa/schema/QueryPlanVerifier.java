@@ -0,0 +1,203 @@
+package study.datajpa.schema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.datajpa.config.DataJpaProperties;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * 시작할 때 선언된 쿼리(@Query, @NamedQuery, FragmentQueries)마다 EXPLAIN을 실행해서 인덱스를 타는지 검사한다
+ *
+ * JPQL은 Hibernate 쿼리 플랜 캐시로 SQL로 바꾸고, 파라미터는 모두 '1'로 바인딩한다.
+ * where 조건이 있는데 H2 실행 계획에 tableScan이 나오면 경고, fail-on-table-scan=true 이면 시작 실패.
+ * 메서드 이름으로 만드는 쿼리는 선언된 쿼리가 아니므로 대상이 아니다 (findByUserName은 Member.findByUserName named query)
+ * 구현 조각의 JPQL은 FragmentQueries로 등록한 것만 검사한다. Specification처럼 호출하는 쪽이 조건을 만드는 쿼리(claimBatch)는 대상이 아니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryPlanVerifier {
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final DataJpaProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        DataJpaProperties.Schema config = properties.getSchema();
+        if (!config.isVerifyQueryPlans()) {
+            return;
+        }
+
+        List<QueryPlan> tableScans = verify().stream()
+                                             .filter(QueryPlan::isTableScan)
+                                             .collect(Collectors.toList());
+        for (QueryPlan plan : tableScans) {
+            log.warn("[query plan] table scan {} : {}\n{}", plan.getName(), plan.getSql(), plan.getPlan());
+        }
+        if (config.isFailOnTableScan() && !tableScans.isEmpty()) {
+            throw new IllegalStateException("declared queries use table scans : "
+                    + tableScans.stream().map(QueryPlan::getName).collect(Collectors.toList()));
+        }
+    }
+
+    public List<QueryPlan> verify() {
+        List<QueryPlan> plans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (DeclaredQuery query : declaredQueries()) {
+                String[] sqls;
+                try {
+                    sqls = query.toSql();
+                } catch (RuntimeException e) {
+                    plans.add(new QueryPlan(query.name, query.query, null, e.getMessage(), false));
+                    continue;
+                }
+                for (String sql : sqls) {
+                    plans.add(explain(connection, query.name, sql));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("query plan verification failed", e);
+        }
+        return plans;
+    }
+
+    private List<DeclaredQuery> declaredQueries() {
+        List<DeclaredQuery> queries = new ArrayList<>();
+
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                for (Method method : information.getQueryMethods()) {
+                    Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                    if (query == null || query.value().contains("#{")) { // SpEL은 제외
+                        continue;
+                    }
+                    String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                    queries.add(new DeclaredQuery(name, query.value(), query.nativeQuery()));
+                    if (StringUtils.hasText(query.countQuery())) {
+                        queries.add(new DeclaredQuery(name + ".count", query.countQuery(), query.nativeQuery()));
+                    }
+                }
+            });
+        }
+
+        for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                queries.add(new DeclaredQuery(namedQuery.name(), namedQuery.query(), false));
+            }
+        }
+
+        for (FragmentQueries fragment : applicationContext.getBeansOfType(FragmentQueries.class).values()) {
+            fragment.getFragmentQueries().forEach((name, jpql) -> queries.add(new DeclaredQuery(name, jpql, false)));
+        }
+        return queries;
+    }
+
+    private QueryPlan explain(Connection connection, String name, String sql) {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setString(i, "1");
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return new QueryPlan(name, sql, plan.toString().trim(), null, isTableScan(sql, plan.toString()));
+        } catch (SQLException e) {
+            log.warn("[query plan] explain failed {} : {}", name, e.getMessage());
+            return new QueryPlan(name, sql, null, e.getMessage(), false);
+        }
+    }
+
+    // 조건 없는 전체 조회(findUserNameList, count 등)는 원래 전체 스캔이다
+    private boolean isTableScan(String sql, String plan) {
+        return plan.contains(".tableScan") && sql.toLowerCase(Locale.ROOT).contains(" where ");
+    }
+
+    private class DeclaredQuery {
+
+        private final String name;
+        private final String query;
+        private final boolean nativeQuery;
+
+        DeclaredQuery(String name, String query, boolean nativeQuery) {
+            this.name = name;
+            this.query = query;
+            this.nativeQuery = nativeQuery;
+        }
+
+        String[] toSql() {
+            if (nativeQuery) {
+                return new String[]{toJdbcParameters(query)};
+            }
+            return emf.unwrap(SessionFactoryImplementor.class)
+                      .getQueryPlanCache()
+                      .getHQLQueryPlan(query, false, Collections.emptyMap())
+                      .getSqlStrings();
+        }
+    }
+
+    // ?1, :name 파라미터를 JDBC ? 로. 따옴표 안(문자열 리터럴, 인용 식별자)과 ::타입 캐스트는 그대로 둔다
+    public static String toJdbcParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        char quote = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                result.append(c);
+                i++;
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                result.append(c);
+                i++;
+            } else if (c == ':' && i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                result.append("::");
+                i += 2;
+            } else if ((c == '?' && i + 1 < sql.length() && Character.isDigit(sql.charAt(i + 1)))
+                    || (c == ':' && i + 1 < sql.length() && Character.isLetter(sql.charAt(i + 1)))) {
+                int end = i + 1;
+                while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_')) {
+                    end++;
+                }
+                result.append('?');
+                i = end;
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        return result.toString();
+    }
+}
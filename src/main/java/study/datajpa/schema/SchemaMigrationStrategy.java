@@ -0,0 +1,29 @@
+package study.datajpa.schema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+import study.datajpa.config.DataJpaProperties;
+
+/**
+ * 스키마는 Flyway(db/migration)로 관리하고 Hibernate는 validate만 한다
+ * datajpa.schema.recreate-on-startup=true 이면 migrate 전에 clean (기존 ddl-auto: create 와 같은 동작)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaMigrationStrategy implements FlywayMigrationStrategy {
+
+    private final DataJpaProperties properties;
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (properties.getSchema().isRecreateOnStartup()) {
+            log.info("[schema] recreate-on-startup : flyway clean");
+            flyway.clean();
+        }
+        flyway.migrate();
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.transaction;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * 작업 큐 처리 : 묶음을 잠그고(claim) 처리한 뒤 커밋하는 것을 더 가져올 게 없을 때까지 반복한다
+ *
+ * 묶음마다 새 트랜잭션이므로 처리 중 예외가 나면 그 묶음만 롤백되고 잠금이 풀려서 다른 워커가 다시 가져간다.
+ * handler는 처리한 항목이 다시 조회되지 않도록 상태를 바꿔야 한다 (ex. 처리 완료 표시).
+ * 빈 묶음은 남은 항목이 없거나 모두 다른 워커가 잡고 있다는 뜻이다.
+ *
+ * processor.drain(n -> memberRepository.claimBatch(spec, n), 100, batch -> ...)
+ */
+@Component
+public class BatchClaimProcessor {
+
+    private final TransactionTemplate requiresNewTx;
+
+    public BatchClaimProcessor(PlatformTransactionManager transactionManager) {
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 처리한 항목 수
+    public <T> int drain(IntFunction<List<T>> claimer, int batchSize, Consumer<List<T>> handler) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        int processed = 0;
+        while (true) {
+            Integer count = requiresNewTx.execute(status -> {
+                List<T> batch = claimer.apply(batchSize);
+                if (!batch.isEmpty()) {
+                    handler.accept(batch);
+                }
+                return batch.size();
+            });
+            if (count == null || count == 0) {
+                return processed;
+            }
+            processed += count;
+        }
+    }
+}
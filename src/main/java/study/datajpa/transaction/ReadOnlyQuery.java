@@ -0,0 +1,20 @@
+package study.datajpa.transaction;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메서드(또는 클래스의 모든 메서드) 전체를 하나의 읽기 전용 트랜잭션으로 실행한다
+ *
+ * - 안에서 호출하는 모든 리포지토리 조회가 읽기 전용 세션을 사용한다 (스냅샷 X, flush X)
+ * - replica가 설정되어 있으면 replica DB로 라우팅 된다
+ * - 이미 트랜잭션이 진행 중이면 그 트랜잭션에 그대로 참여한다
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ReadOnlyQuery {
+}
@@ -0,0 +1,49 @@
+package study.datajpa.transaction;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.UndeclaredThrowableException;
+
+@Aspect
+@Component
+public class ReadOnlyQueryAspect {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate readOnlyTx;
+    private final ReadOnlyQueryMetrics metrics;
+
+    public ReadOnlyQueryAspect(PlatformTransactionManager transactionManager, ReadOnlyQueryMetrics metrics) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.metrics = metrics;
+    }
+
+    @Around("@within(study.datajpa.transaction.ReadOnlyQuery) || @annotation(study.datajpa.transaction.ReadOnlyQuery)")
+    public Object readOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        return readOnlyTx.execute(status -> {
+            try {
+                Object result = joinPoint.proceed();
+                metrics.record(em);
+                return result;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package study.datajpa.transaction;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 읽기 전용 트랜잭션에서 만들지 않은 스냅샷(dirty checking 용 엔티티 상태 복사본) 통계
+ *
+ * 스냅샷은 엔티티 프로퍼티 수 만큼의 Object[] 이므로 (배열 헤더 16byte + 참조 4byte * 프로퍼티 수)로 추정한다.
+ */
+@Component
+public class ReadOnlyQueryMetrics {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder snapshotsSkipped = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    // 트랜잭션이 끝나기 전에 호출, 영속성 컨텍스트에 있는 엔티티 수를 기준으로 계산한다
+    void record(EntityManager em) {
+        transactions.increment();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                                                      .getPersistenceContextInternal()
+                                                      .reentrantSafeEntityEntries()) {
+            if (entry.getValue().isReadOnly()) {
+                snapshotsSkipped.increment();
+                bytesSaved.add(ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * entry.getValue().getPersister().getPropertyTypes().length);
+            }
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("transactions", transactions.sum());
+        result.put("snapshotsSkipped", snapshotsSkipped.sum());
+        result.put("approxBytesSaved", bytesSaved.sum());
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package study.datajpa.transaction;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.DataJpaProperties;
+
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 낙관적 락 충돌(@Version), 잠금 대기 시간 초과 시 새 트랜잭션으로 다시 실행한다
+ *
+ * 매 시도는 REQUIRES_NEW 트랜잭션이라 영속성 컨텍스트도 새로 만들어지고 최신 version을 다시 읽는다.
+ * 재시도 전에는 (0, min(maxBackoff, initialBackoff * 2^n)) 범위에서 랜덤하게 기다린다 (full jitter).
+ * 같은 row를 두고 경쟁하는 스레드들이 동시에 다시 부딪히지 않게 하기 위함.
+ */
+@Slf4j
+@Component
+public class TransactionRetryExecutor {
+
+    private final TransactionTemplate requiresNewTx;
+    private final DataJpaProperties.Retry config;
+
+    public TransactionRetryExecutor(PlatformTransactionManager transactionManager, DataJpaProperties properties) {
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.config = properties.getRetry();
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        int maxAttempts = Math.max(1, config.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return requiresNewTx.execute(action);
+            } catch (RuntimeException e) {
+                if (!isRetryable(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("[retry] attempt {}/{} failed : {}", attempt, maxAttempts, e.toString());
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    // 리포지토리 밖(EntityManager 직접 사용)에서 던진 JPA 예외는 스프링 예외로 변환되지 않는다
+    private boolean isRetryable(RuntimeException e) {
+        return e instanceof ConcurrencyFailureException
+                || e instanceof OptimisticLockException
+                || e instanceof PessimisticLockException
+                || e instanceof LockTimeoutException;
+    }
+
+    private void backoff(int attempt, RuntimeException cause) {
+        long initial = config.getInitialBackoff().toMillis();
+        long max = config.getMaxBackoff().toMillis();
+        long bound = Math.min(max, initial << Math.min(attempt - 1, 30));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+-- ddl-auto: create 로 만들던 스키마 (Member, Team, Item)
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+
+create table team
+(
+    team_id      bigint not null,
+    created_date timestamp,
+    updated_date timestamp,
+    name         varchar(255),
+    primary key (team_id)
+);
+
+create table member
+(
+    member_id          bigint  not null,
+    created_date       timestamp,
+    last_modified_date timestamp,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    age                integer not null,
+    user_name          varchar(255),
+    team_id            bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create table item
+(
+    id           varchar(255) not null,
+    created_date timestamp,
+    name         varchar(255),
+    primary key (id)
+);
+
+-- Member @Table(indexes) 와 같은 이름
+-- findByUserName, findByNativeQuery, findLockByUserName, projection
+create index idx_member_user_name on member (user_name);
+-- findPagingByAge, findByPage, bulkAgePlus (age 조건 + user_name 정렬/조회)
+create index idx_member_age_user_name on member (age, user_name);
+-- team 조인, Team.members 로딩
+create index idx_member_team_id on member (team_id);
@@ -0,0 +1,4 @@
+-- /members (findMemberDtos) : user_name 정렬 + team 조인 컬럼까지 인덱스에서 읽는다
+-- idx_member_user_name 은 이 인덱스의 앞부분이므로 대체한다 (findByUserName 등은 그대로 사용)
+create index idx_member_user_name_team_id on member (user_name, team_id);
+drop index idx_member_user_name;
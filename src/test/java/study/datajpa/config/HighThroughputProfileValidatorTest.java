@@ -0,0 +1,106 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * high-throughput 프로파일로 컨텍스트가 뜨는지, 설정이 빠지면 어떤 항목이 위반으로 나오는지 확인한다
+ * 위반 목록은 EntityManagerFactory 목과 MockEnvironment로 검사한다
+ */
+@SpringBootTest
+@ActiveProfiles("high-throughput")
+class HighThroughputProfileValidatorTest {
+
+    @Autowired HighThroughputProfileValidator validator;
+
+    @Test
+    @DisplayName("high-throughput 프로파일 설정이 모두 적용되면 컨텍스트가 뜬다")
+    public void profileApplied() {
+        assertThat(validator).isNotNull(); // afterPropertiesSet에서 실패하면 컨텍스트가 뜨지 않는다
+    }
+
+    @Test
+    @DisplayName("open-in-view가 켜져 있으면 위반")
+    public void openInView() {
+        //given
+        MockEnvironment environment = validEnvironment().withProperty("spring.jpa.open-in-view", "true");
+
+        //when //then
+        assertThatThrownBy(() -> validator(validHibernateProperties(), environment).afterPropertiesSet())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("spring.jpa.open-in-view must be false")
+                .hasMessageNotContaining("hibernate.jdbc.batch_size")
+                .hasMessageNotContaining("provider_disables_autocommit");
+    }
+
+    @Test
+    @DisplayName("provider_disables_autocommit만 켜고 hikari auto-commit을 끄지 않으면 위반")
+    public void providerDisablesAutocommitWithoutHikari() {
+        //given
+        MockEnvironment environment = new MockEnvironment() // hikari auto-commit 기본값 true
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("decorator.datasource.p6spy.enable-logging", "false");
+
+        //when //then
+        assertThatThrownBy(() -> validator(validHibernateProperties(), environment).afterPropertiesSet())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("provider_disables_autocommit and spring.datasource.hikari.auto-commit=false must be set together")
+                .hasMessageNotContaining("open-in-view");
+    }
+
+    @Test
+    @DisplayName("hibernate 설정이 빠지면 항목마다 위반")
+    public void missingHibernateProperties() {
+        //given
+        Map<String, Object> hibernate = validHibernateProperties();
+        hibernate.remove("hibernate.jdbc.batch_size");
+        hibernate.put("hibernate.order_updates", "false");
+        hibernate.put("hibernate.query.plan_cache_max_size", "512");
+
+        //when //then
+        assertThatThrownBy(() -> validator(hibernate, validEnvironment()).afterPropertiesSet())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("hibernate.jdbc.batch_size must be greater than 1")
+                .hasMessageContaining("hibernate.order_updates must be true")
+                .hasMessageContaining("hibernate.query.plan_cache_max_size must be at least 2048")
+                .hasMessageNotContaining("hibernate.order_inserts");
+    }
+
+    private HighThroughputProfileValidator validator(Map<String, Object> hibernate, MockEnvironment environment) {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        when(emf.getProperties()).thenReturn(hibernate);
+        return new HighThroughputProfileValidator(emf, environment);
+    }
+
+    private Map<String, Object> validHibernateProperties() {
+        Map<String, Object> hibernate = new HashMap<>();
+        hibernate.put("hibernate.jdbc.batch_size", "100");
+        hibernate.put("hibernate.order_inserts", "true");
+        hibernate.put("hibernate.order_updates", "true");
+        hibernate.put("hibernate.default_batch_fetch_size", "100");
+        hibernate.put("hibernate.query.plan_cache_max_size", "4096");
+        hibernate.put("hibernate.query.in_clause_parameter_padding", "true");
+        hibernate.put("hibernate.connection.provider_disables_autocommit", "true");
+        return hibernate;
+    }
+
+    private MockEnvironment validEnvironment() {
+        return new MockEnvironment()
+                .withProperty("spring.datasource.hikari.auto-commit", "false")
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("decorator.datasource.p6spy.enable-logging", "false");
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.controller.MemberController;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary, replica를 서로 다른 인메모리 H2로 띄워서 어느 쪽으로 라우팅되는지 확인한다
+ * 2차 캐시는 다른 테스트 컨텍스트와 공유되므로 끈다
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datajpa_primary;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.replica.enabled=true",
+        "datajpa.datasource.replica.url=jdbc:h2:mem:datajpa_replica;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.replica.username=sa",
+        "datajpa.datasource.replica.password=",
+        "datajpa.datasource.replica.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired MemberController memberController;
+    @Autowired MemberRepository memberRepository;
+    @Autowired @Qualifier("primaryDataSource") HikariDataSource primaryDataSource;
+    @Autowired @Qualifier("replicaDataSource") HikariDataSource replicaDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        // Flyway는 primary만 마이그레이션하므로 replica 스키마는 직접 만든다
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        primary.update("delete from member where user_name in ('replicaMember', 'primaryMember')");
+        replica.update("delete from member where user_name in ('replicaMember', 'primaryMember')");
+    }
+
+    @Test
+    @DisplayName("@ReadOnlyQuery는 replica에서 읽는다")
+    public void readOnlyQueryReadsReplica() {
+        //given : replica에만 있는 회원
+        replica.update("insert into member (member_id, age, user_name, version) values (1000, 10, 'replicaMember', 0)");
+
+        //when
+        String userName = memberController.findMember(1000L);
+
+        //then
+        assertThat(userName).isEqualTo("replicaMember");
+        assertThat(countByUserName(primary, "replicaMember")).isZero();
+    }
+
+    @Test
+    @DisplayName("쓰기는 primary로 간다")
+    public void writeGoesToPrimary() {
+        //when
+        memberRepository.save(new Member("primaryMember", 10));
+
+        //then
+        assertThat(countByUserName(primary, "primaryMember")).isEqualTo(1);
+        assertThat(countByUserName(replica, "primaryMember")).isZero();
+    }
+
+    private int countByUserName(JdbcTemplate jdbcTemplate, String userName) {
+        return jdbcTemplate.queryForObject("select count(*) from member where user_name = ?", Integer.class, userName);
+    }
+}
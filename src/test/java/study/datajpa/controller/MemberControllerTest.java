@@ -0,0 +1,166 @@
+package study.datajpa.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.dto.CursorResult;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.transaction.ReadOnlyQueryMetrics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberController memberController;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired ReadOnlyQueryMetrics readOnlyQueryMetrics;
+    @Autowired @Qualifier(AsyncConfig.REPOSITORY_EXECUTOR) AsyncTaskExecutor repositoryExecutor;
+
+    @Test
+    @DisplayName("@ReadOnlyQuery 메서드 전체가 읽기 전용 트랜잭션으로 실행된다")
+    public void readOnlyQuery() {
+        //given
+        Member member = memberRepository.save(new Member("readOnlyMember", 88));
+        long transactions = readOnlyQueryMetrics.snapshot().get("transactions");
+        long snapshotsSkipped = readOnlyQueryMetrics.snapshot().get("snapshotsSkipped");
+
+        //when
+        String userName = memberController.findMember(member.getId());
+
+        //then
+        assertThat(userName).isEqualTo("readOnlyMember");
+        assertThat(readOnlyQueryMetrics.snapshot().get("transactions")).isEqualTo(transactions + 1);
+        assertThat(readOnlyQueryMetrics.snapshot().get("snapshotsSkipped")).isGreaterThan(snapshotsSkipped);
+
+        memberRepository.delete(member);
+    }
+
+    @Test
+    @DisplayName("@Async 리포지토리 메서드는 repositoryExecutor에서 실행된다")
+    public void asyncRepository() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("asyncTeam"));
+        Member member = memberRepository.save(new Member("asyncMember", 89, team));
+        // 기본 설정(virtual-threads=false)은 ThreadPoolTaskExecutor
+        ThreadPoolExecutor executor = ((ThreadPoolTaskExecutor) repositoryExecutor).getThreadPoolExecutor();
+        long tasks = executor.getTaskCount();
+        try {
+            //when
+            List<Member> result = memberRepository.findAsyncByUserName("asyncMember").get(5, TimeUnit.SECONDS);
+
+            //then
+            assertThat(executor.getTaskCount()).isEqualTo(tasks + 1); // @Async가 무시되면 호출한 스레드에서 실행된다
+            assertThat(result).hasSize(1);
+            assertThat(result.get(0).getTeam().getName()).isEqualTo("asyncTeam"); // 트랜잭션 밖이지만 EntityGraph로 함께 조회
+        } finally {
+            memberRepository.delete(member);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    @DisplayName("/members/async 커서로 다음 페이지를 이어서 조회한다")
+    public void listAsync() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("cursorTeam"));
+        List<Member> members = memberRepository.saveAll(Arrays.asList(
+                new Member("cursor1", 94, team), new Member("cursor2", 94, team), new Member("cursor3", 94)));
+        String cursor = CursorResult.encode(members.get(0).getId() - 1);
+        try {
+            //when
+            MvcResult first = mockMvc.perform(get("/members/async").param("cursor", cursor).param("size", "2"))
+                                     .andExpect(request().asyncStarted())
+                                     .andReturn();
+            String nextCursor = CursorResult.encode(members.get(1).getId());
+            mockMvc.perform(asyncDispatch(first))
+                   .andExpect(status().isOk())
+                   .andExpect(jsonPath("$.content[0].userName").value("cursor1"))
+                   .andExpect(jsonPath("$.content[1].userName").value("cursor2"))
+                   .andExpect(jsonPath("$.content[1].teamName").value("cursorTeam"))
+                   .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+                   .andExpect(jsonPath("$.hasNext").value(true));
+
+            MvcResult second = mockMvc.perform(get("/members/async").param("cursor", nextCursor).param("size", "2"))
+                                      .andExpect(request().asyncStarted())
+                                      .andReturn();
+
+            //then
+            mockMvc.perform(asyncDispatch(second))
+                   .andExpect(status().isOk())
+                   .andExpect(jsonPath("$.content[0].userName").value("cursor3"))
+                   .andExpect(jsonPath("$.content[0].teamName").doesNotExist());
+        } finally {
+            memberRepository.deleteAll(members);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    @DisplayName("/members 정렬 : teamName은 팀 이름으로, 허용하지 않은 속성은 400")
+    public void listSort() throws Exception {
+        //given
+        Team teamA = teamRepository.save(new Team("sortTeamA"));
+        Team teamB = teamRepository.save(new Team("sortTeamB"));
+        Member memberA = memberRepository.save(new Member("sortMember", 95, teamA));
+        Member memberB = memberRepository.save(new Member("sortMember", 95, teamB));
+        try {
+            //when
+            String json = mockMvc.perform(get("/members").param("sort", "teamName,desc").param("sort", "id").param("size", "200"))
+                                 .andExpect(status().isOk())
+                                 .andReturn()
+                                 .getResponse()
+                                 .getContentAsString();
+
+            //then : 팀 이름(t.name) 내림차순, 팀이 없는 회원(null)은 제외하고 비교
+            List<String> teamNames = JsonPath.read(json, "$.content[*].teamName");
+            assertThat(teamNames.stream().filter(Objects::nonNull).collect(Collectors.toList()))
+                    .isNotEmpty()
+                    .isSortedAccordingTo(Comparator.reverseOrder());
+            mockMvc.perform(get("/members").param("sort", "team.name"))
+                   .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/members").param("sort", "age"))
+                   .andExpect(status().isBadRequest());
+        } finally {
+            memberRepository.delete(memberA);
+            memberRepository.delete(memberB);
+            teamRepository.delete(teamA);
+            teamRepository.delete(teamB);
+        }
+    }
+
+    @Test
+    @DisplayName("/members/async 잘못된 커서는 400")
+    public void listAsyncInvalidCursor() throws Exception {
+        mockMvc.perform(get("/members/async").param("cursor", "not-a-cursor"))
+               .andExpect(status().isBadRequest());
+    }
+}
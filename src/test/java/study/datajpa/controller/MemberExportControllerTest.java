@@ -0,0 +1,89 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberExportControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberExportController memberExportController;
+
+    @Test
+    @DisplayName("회원 내보내기 csv, ndjson, 끝나면 커서(Stream)를 닫는다")
+    public void export() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("export,Member", 93));
+        try {
+            //when
+            String csv = export("csv", "text/csv;charset=UTF-8");
+            String ndjson = export("ndjson", "application/x-ndjson");
+
+            //then
+            assertThat(csv).startsWith("id,userName,age\n")
+                           .contains(member.getId() + ",\"export,Member\",93\n");
+            assertThat(ndjson.split("\n")).contains("{\"id\":" + member.getId() + ",\"userName\":\"export,Member\",\"age\":93}");
+            assertThat(memberExportController.getOpenStreams()).isZero();
+        } finally {
+            memberRepository.deleteById(member.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("커서 열기에 실패해도 열린 Stream 수는 그대로")
+    public void exportStreamOpenFails() {
+        //given
+        MemberRepository failingRepository = mock(MemberRepository.class);
+        when(failingRepository.streamMemberCustom(anyInt())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        MemberExportController controller = new MemberExportController(failingRepository, mock(PlatformTransactionManager.class),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        StreamingResponseBody body = controller.export("csv").getBody();
+
+        //when
+        assertThatThrownBy(() -> body.writeTo(new ByteArrayOutputStream()))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        //then
+        assertThat(controller.getOpenStreams()).isZero();
+    }
+
+    private String export(String format, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(get("/members/export").param("format", format))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                      .andExpect(status().isOk())
+                      .andExpect(header().string("Content-Type", contentType))
+                      .andReturn()
+                      .getResponse()
+                      .getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.auditing.RequestAuditorAware;
 import study.datajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -26,6 +31,9 @@ class MemberTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    Clock clock;
+
     @Test
     public void testEntity() {
         Team teamA = new Team("teamA");
@@ -78,4 +86,32 @@ class MemberTest {
         System.out.println("findMember.getCreatedBy() = " + findMember.getCreatedBy());
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void auditListener() {
+        //given
+        Member member = new Member("auditMember", 10);
+        memberRepository.save(member); // AuditListener.prePersist
+
+        //then
+        assertThat(member.getCreatedDate()).isNotNull();
+        assertThat(member.getLastModifiedDate()).isEqualTo(member.getCreatedDate());
+        assertThat(member.getCreatedBy()).isEqualTo(RequestAuditorAware.SYSTEM); // 요청 밖에서는 system
+
+        //when
+        member.setUserName("auditMember2");
+        em.flush(); // AuditListener.preUpdate
+
+        //then
+        assertThat(member.getLastModifiedDate()).isAfterOrEqualTo(member.getCreatedDate());
+        assertThat(member.getLastModifiedBy()).isEqualTo(RequestAuditorAware.SYSTEM);
+
+        //when : 1초 뒤의 시계 (CachedClock 갱신을 기다리지 않는다)
+        LocalDateTime createdDate = member.getCreatedDate();
+        new AuditListener(new RequestAuditorAware(), Clock.offset(clock, Duration.ofSeconds(1))).preUpdate(member);
+
+        //then
+        assertThat(member.getLastModifiedDate()).isAfter(member.getCreatedDate());
+        assertThat(member.getCreatedDate()).isEqualTo(createdDate); // 등록일은 그대로
+    }
+}
@@ -1,15 +1,29 @@
 package study.datajpa.repository;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
+import study.datajpa.repository.support.UpsertResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class ItemRepositoryTest {
 
     @Autowired ItemRepository itemRepository;
 
+    // 트랜잭션 없이 커밋되므로 테스트가 중간에 실패해도 지운다
+    @AfterEach
+    public void cleanUp() {
+        List<String> ids = Arrays.asList("upsertA", "upsertB", "upsertC");
+        itemRepository.deleteAll(itemRepository.findAllById(ids));
+    }
+
     @Test
     public void save() {
         //given
@@ -20,4 +34,26 @@ class ItemRepositoryTest {
 
         //then
     }
-}
\ No newline at end of file
+
+    @Test
+    public void upsertAll() {
+        //given
+        itemRepository.save(new Item("upsertA", "before"));
+        Item saved = itemRepository.findById("upsertA").get();
+
+        //when
+        UpsertResult result = itemRepository.upsertAll(Arrays.asList(
+                new Item("upsertA", "after"),
+                new Item("upsertB", "new"),
+                new Item("upsertC", "new")), 2);
+
+        //then
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(1);
+
+        Item updated = itemRepository.findById("upsertA").get();
+        assertThat(updated.getName()).isEqualTo("after");
+        assertThat(updated.getCreatedDate()).isEqualTo(saved.getCreatedDate()); // 등록일은 그대로
+        assertThat(itemRepository.findById("upsertB").get().getCreatedDate()).isNotNull();
+    }
+}
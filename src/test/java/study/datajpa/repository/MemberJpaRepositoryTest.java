@@ -6,12 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -21,6 +27,7 @@ import static org.assertj.core.api.Assertions.*;
 class MemberJpaRepositoryTest {
 
     @Autowired MemberJpaRepository memberJpaRepository;
+    @PersistenceContext EntityManager em;
 
     @Test
     @DisplayName("맴버 저장 후 조회 테스트")
@@ -134,6 +141,37 @@ class MemberJpaRepositoryTest {
         assertThat(totalCount).isEqualTo(5);
     }
 
+    @Test
+    public void streamAll() {
+        //given
+        memberJpaRepository.save(new Member("stream1", 10));
+        memberJpaRepository.save(new Member("stream2", 20));
+        long totalCount = memberJpaRepository.count(); // flush
+
+        //when
+        List<Member> result;
+        try (Stream<Member> members = memberJpaRepository.streamAll(100)) {
+            result = members.collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(result).hasSize((int) totalCount);
+        assertThat(result).extracting("userName").contains("stream1", "stream2");
+        assertThat(result).noneMatch(em::contains); // 읽은 엔티티는 준영속 상태
+    }
+
+    @Test
+    @DisplayName("batchSize가 0 이하면 저장하지 않는다")
+    public void saveAllBatchedInvalidBatchSize() {
+        List<Member> members = Collections.singletonList(new Member("invalidBatch", 10));
+
+        // @Repository 예외 변환 : IllegalArgumentException -> InvalidDataAccessApiUsageException
+        assertThatThrownBy(() -> memberJpaRepository.saveAllBatched(members, 0))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(em.contains(members.get(0))).isFalse();
+    }
+
     @Test
     @Rollback(false)
     public void bulkUpdate() {
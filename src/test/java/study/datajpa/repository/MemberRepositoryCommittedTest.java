@@ -0,0 +1,186 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCountScope;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.repository.support.LockTimeout;
+import study.datajpa.transaction.TransactionRetryExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 커밋된 데이터가 필요한 회원 리포지토리 테스트 (쿼리 캐시, 다른 트랜잭션과의 경합)
+ * 테스트 트랜잭션이 없으므로 저장한 데이터는 finally에서 지운다
+ */
+@SpringBootTest
+@DisplayName("커밋된 데이터로 확인하는 회원 리포지토리 테스트")
+class MemberRepositoryCommittedTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired TransactionRetryExecutor retryExecutor;
+
+    @Test
+    @DisplayName("Query by Example 결과 캐시, 회원 저장 시 무효화")
+    public void findAllByExampleCached() {
+        //given
+        Team team = teamRepository.save(new Team("probeTeam"));
+        List<Member> saved = new ArrayList<>();
+        try {
+            Member member1 = memberRepository.save(new Member("probeMember", 601, team));
+            saved.add(member1);
+            Member probe = new Member("PROBEMEMBER");
+            probe.changeTeam(new Team("probeTeam"));
+            Example<Member> example = Example.of(probe, ExampleMatcher.matching()
+                                                                      .withIgnorePaths("age")
+                                                                      .withIgnoreCase("userName"));
+
+            //when
+            List<Member> first = memberRepository.findAllByExampleCached(example);
+
+            //then : 같은 probe는 쿼리 캐시에서
+            try (QueryCountScope scope = QueryCounter.open()) {
+                List<Member> second = memberRepository.findAllByExampleCached(example);
+                assertThat(second).extracting("id").containsExactly(member1.getId());
+                assertThat(scope.getCount()).isZero();
+            }
+            assertThat(first).extracting("id").containsExactly(member1.getId());
+
+            //when : 회원 저장 시 member 테이블 타임스탬프가 바뀌어 캐시된 결과는 버려진다
+            Member member2 = memberRepository.save(new Member("probeMember", 602, team));
+            saved.add(member2);
+
+            //then
+            assertThat(memberRepository.findAllByExampleCached(example))
+                    .extracting("id")
+                    .containsExactlyInAnyOrder(member1.getId(), member2.getId());
+        } finally {
+            memberRepository.deleteAll(saved);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    @DisplayName("지원하지 않는 ExampleMatcher(CONTAINING)는 Criteria로 실행한다")
+    public void findAllByExampleCachedFallback() {
+        //given
+        Team team = teamRepository.save(new Team("containsTeam"));
+        List<Member> saved = new ArrayList<>();
+        try {
+            Member member = memberRepository.save(new Member("containsMember", 603, team));
+            saved.add(member);
+            Member other = memberRepository.save(new Member("otherMember", 603, team));
+            saved.add(other);
+            Member probe = new Member("AINSMEM");
+            Example<Member> example = Example.of(probe, ExampleMatcher.matching()
+                                                                      .withIgnorePaths("age")
+                                                                      .withIgnoreCase()
+                                                                      .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+            //when
+            List<Member> result = memberRepository.findAllByExampleCached(example);
+
+            //then
+            assertThat(result).extracting("id")
+                              .contains(member.getId())
+                              .doesNotContain(other.getId());
+            assertThat(result).extracting("id")
+                              .containsExactlyInAnyOrderElementsOf(memberRepository.findAll(example).stream()
+                                                                                   .map(Member::getId)
+                                                                                   .collect(Collectors.toList()));
+        } finally {
+            memberRepository.deleteAll(saved);
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    @DisplayName("낙관적 락 충돌 시 새 트랜잭션으로 재시도")
+    public void optimisticLockRetry() {
+        //given
+        Member member = memberRepository.save(new Member("versionMember", 801));
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            //when : 첫 시도 중에 다른 트랜잭션이 먼저 수정
+            retryExecutor.execute(status -> {
+                Member found = memberRepository.findById(member.getId()).get();
+                if (attempts.incrementAndGet() == 1) {
+                    requiresNew.executeWithoutResult(s -> memberRepository.findById(member.getId()).get().setAge(900));
+                }
+                found.setAge(found.getAge() + 1);
+                return null;
+            });
+
+            //then
+            Member result = memberRepository.findById(member.getId()).get();
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(result.getAge()).isEqualTo(901);
+            assertThat(result.getVersion()).isEqualTo(member.getVersion() + 2);
+        } finally {
+            memberRepository.deleteById(member.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("잠금 대기 시간 초과, SKIP LOCKED")
+    public void lockTimeout() throws Exception {
+        //given : 다른 스레드가 잠금을 잡고 있다
+        Member member = memberRepository.save(new Member("lockMember", 701));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            Future<?> holder = executor.submit(() -> tx.executeWithoutResult(status -> {
+                memberRepository.findLockByUserName("lockMember");
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            //then
+            assertThat(tx.execute(status -> memberRepository.findLockByUserName("lockMember", LockTimeout.SKIP_LOCKED))).isEmpty();
+            assertThatThrownBy(() -> tx.execute(status -> memberRepository.findLockByUserName("lockMember", LockTimeout.of(Duration.ofMillis(100)))))
+                    .isInstanceOf(PessimisticLockingFailureException.class);
+            assertThatThrownBy(() -> tx.execute(status -> memberRepository.findLockByUserName("lockMember", LockTimeout.NO_WAIT)))
+                    .isInstanceOf(PessimisticLockingFailureException.class);
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            memberRepository.deleteById(member.getId());
+        }
+    }
+}
@@ -1,27 +1,59 @@
 package study.datajpa.repository;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.hibernate.boot.TempTableDdlTransactionHandling;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.auditing.RequestAuditorAware;
+import study.datajpa.config.DataJpaProperties;
+import study.datajpa.dto.CursorResult;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCountScope;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.monitoring.SlowQuery;
+import study.datajpa.monitoring.SlowQueryLog;
+import study.datajpa.repository.support.BulkUpdateSupport;
+import study.datajpa.repository.support.BulkUpdateSupport.SyncMode;
+import study.datajpa.repository.support.CachedSpecification;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.InClauseSupport;
+import study.datajpa.repository.support.UnsupportedSortException;
+import study.datajpa.schema.QueryPlan;
+import study.datajpa.schema.QueryPlanVerifier;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.JoinType;
 import javax.swing.*;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -32,6 +64,13 @@ class MemberRepositoryTest {
     @Autowired MemberRepository memberRepository;
     @Autowired TeamRepository teamRepository;
     @PersistenceContext EntityManager em;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired SlowQueryLog slowQueryLog;
+    @Autowired DataJpaProperties properties;
+    @Autowired QueryPlanVerifier queryPlanVerifier;
+    @Autowired Clock clock;
+    @Autowired MemberQueryRepository memberQueryRepository;
+    @Autowired BulkUpdateSupport bulkUpdateSupport;
 
     @Test
     @Rollback(false)
@@ -187,6 +226,50 @@ class MemberRepositoryTest {
         assertThat(result.get(2).getUserName()).isEqualTo("CCC");
     }
 
+    @Test
+    @DisplayName("in 절을 나눠서 조회하고 요청한 순서대로 합치는지 테스트")
+    public void findByNamesInChunks() {
+        //given
+        List<String> names = Arrays.asList("inE", "inA", "inD", "inB", "inC");
+        for (String name : names) {
+            memberRepository.save(new Member(name, 92));
+        }
+        em.flush();
+        em.clear();
+
+        int maxSize = properties.getQuery().getInClauseMaxSize();
+        properties.getQuery().setInClauseMaxSize(2); // 중복을 뺀 6개 : 2 + 2 + 2
+        try (QueryCountScope scope = QueryCounter.open()) {
+            //when
+            List<Member> result = memberRepository.findByNames(Arrays.asList("inE", "inA", "inD", "inNone", "inB", "inC", "inA"));
+
+            //then
+            assertThat(result).extracting(Member::getUserName).containsExactlyElementsOf(names);
+            assertThat(scope.getCount()).isEqualTo(3);
+            // 나눈 조회는 모두 같은 SQL (chunk 크기가 같고 in 절 파라미터 padding)
+            assertThat(scope.getRepeatedStatements(1)).hasSize(1).containsValue(3);
+        } finally {
+            properties.getQuery().setInClauseMaxSize(maxSize);
+        }
+    }
+
+    @Test
+    @DisplayName("in 절 최대 크기는 1 이상")
+    public void findByNamesInvalidMaxSize() {
+        int maxSize = properties.getQuery().getInClauseMaxSize();
+        properties.getQuery().setInClauseMaxSize(0);
+        try {
+            // 리포지토리 프록시가 IllegalArgumentException을 InvalidDataAccessApiUsageException으로 변환한다
+            assertThatThrownBy(() -> memberRepository.findByNames(Arrays.asList("inA", "inB")))
+                    .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new InClauseSupport(properties)) // 시작할 때 검사
+                    .isInstanceOf(IllegalArgumentException.class);
+        } finally {
+            properties.getQuery().setInClauseMaxSize(maxSize);
+        }
+    }
+
     @Test
     public void returnType() {
         Member m1 = new Member("AAA", 10);
@@ -246,6 +329,75 @@ class MemberRepositoryTest {
 //        assertThat(resultWithPaging.hasNext()).isTrue();
     }
 
+    @Test
+    @DisplayName("count 전략별 페이징 테스트")
+    public void pagingWithCountStrategy() {
+        //given
+        for (int i = 0; i < 7; i++) {
+            memberRepository.save(new Member("member" + i, 77));
+        }
+        memberRepository.save(new Member("other", 78));
+        PageRequest page = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "userName"));
+
+        //when
+        Page<Member> exact = memberRepository.findPagingByAge(77, page);
+        Page<Member> exactCustom = memberRepository.findPagingByAge(77, page, CountStrategy.EXACT);
+        Page<Member> cached = memberRepository.findPagingByAge(77, page, CountStrategy.CACHED);
+        memberRepository.save(new Member("member7", 77));
+        Page<Member> cachedAgain = memberRepository.findPagingByAge(77, page, CountStrategy.CACHED);
+
+        //then
+        assertThat(exact.getTotalElements()).isEqualTo(7); // 조건이 반영된 count 쿼리
+        assertThat(exactCustom.getTotalElements()).isEqualTo(7);
+        assertThat(exactCustom.getContent()).extracting("userName").containsExactly("member6", "member5", "member4");
+        assertThat(cached.getTotalElements()).isEqualTo(7);
+        assertThat(cachedAgain.getTotalElements()).isEqualTo(7); // TTL 동안은 캐싱된 값
+    }
+
+    @Test
+    @DisplayName("벌크 연산 후 캐싱된 count 무효화")
+    public void pagingCountEvictedByBulkUpdate() {
+        //given
+        for (int i = 0; i < 4; i++) {
+            memberRepository.save(new Member("evictMember" + i, 87));
+        }
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("evictOther" + i, 88));
+        }
+        PageRequest page = PageRequest.of(0, 3);
+        Page<Member> cached = memberRepository.findPagingByAge(88, page, CountStrategy.CACHED);
+
+        //when : 87 -> 88, 88 -> 89
+        memberRepository.bulkAgePlus(87);
+
+        //then
+        assertThat(cached.getTotalElements()).isEqualTo(5);
+        assertThat(memberRepository.findPagingByAge(88, page, CountStrategy.CACHED).getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("keyset 페이징 테스트")
+    public void keysetPaging() {
+        //given
+        Member first = memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 10));
+
+        //when
+        Slice<Member> page1 = memberRepository.findByIdGreaterThanOrderByIdAsc(first.getId() - 1, PageRequest.of(0, 3));
+        Long lastId = page1.getContent().get(page1.getNumberOfElements() - 1).getId();
+        Slice<Member> page2 = memberRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, 3));
+
+        //then
+        assertThat(page1.getContent()).extracting("userName").containsExactly("member1", "member2", "member3");
+        assertThat(page1.hasNext()).isTrue();
+        assertThat(page2.getContent()).extracting("userName").containsExactly("member4", "member5");
+        assertThat(page2.hasNext()).isFalse();
+        assertThat(CursorResult.decode(CursorResult.encode(lastId))).isEqualTo(lastId);
+    }
+
     private void createMemberForPaging() {
         Member m1 = new Member("ymkim", 10);
         Member m2 = new Member("youngsik", 10);
@@ -289,7 +441,7 @@ class MemberRepositoryTest {
         //when
         int resultCnt = memberRepository.bulkAgePlus(20);
 
-        //bulk 연산 이후 영속성 컨텍스트 초기화, 스프링 데이터 JPA @Modifying(clearAutomatically = true)
+        //bulk 연산 이후 영속성 컨텍스트 전체를 초기화 하지 않고, 대상 회원만 refresh 한다 (BulkUpdateSupport)
 //        em.flush();
 //        em.clear();
 
@@ -303,6 +455,83 @@ class MemberRepositoryTest {
 
         //then
         assertThat(resultCnt).isEqualTo(3);
+        assertThat(member2).isSameAs(member1);
+        assertThat(member1.getAge()).isEqualTo(41);
+    }
+
+    @Test
+    @DisplayName("벌크 update 시 수정일 갱신 테스트")
+    public void bulkUpdateLastModifiedDate() {
+        //given : 수정일/수정자를 과거 값으로 맞춰 둔다 (시계가 움직이기를 기다리지 않는다)
+        Member member = memberRepository.save(new Member("bulkMember", 600));
+        em.flush();
+        LocalDateTime past = LocalDateTime.of(2000, 1, 1, 0, 0);
+        em.createNativeQuery("update member set last_modified_date = ?, last_modified_by = 'old' where member_id = ?")
+          .setParameter(1, past)
+          .setParameter(2, member.getId())
+          .executeUpdate();
+        em.refresh(member);
+
+        //when
+        LocalDateTime before = LocalDateTime.now(clock);
+        memberRepository.bulkAgePlus(600); // BulkUpdateSupport가 :now, :auditor를 채운다
+
+        //then
+        assertThat(member.getAge()).isEqualTo(601);
+        assertThat(member.getLastModifiedDate()).isAfterOrEqualTo(before);
+        assertThat(member.getLastModifiedBy()).isEqualTo(RequestAuditorAware.SYSTEM);
+    }
+
+    @Test
+    @DisplayName("auditing 컬럼이 있는 엔티티의 벌크 update는 :now, :auditor가 없으면 실행하지 않는다")
+    public void bulkUpdateWithoutAuditParameters() {
+        //given
+        Member member = memberRepository.save(new Member("bulkNoAudit", 610));
+        em.flush();
+        Query withoutAuditor = em.createQuery("update Member m set m.age = m.age + 1, m.lastModifiedDate = :now where m.age = :age")
+                                  .setParameter("age", 610);
+        Query withoutBoth = em.createQuery("update Member m set m.age = m.age + 1 where m.age = :age")
+                               .setParameter("age", 610);
+
+        //when //then
+        assertThatThrownBy(() -> bulkUpdateSupport.executeUpdate(withoutAuditor, Member.class, m -> m.getAge() == 610, SyncMode.REFRESH))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(":auditor")
+                .hasMessageNotContaining(":now");
+        assertThatThrownBy(() -> bulkUpdateSupport.executeUpdate(withoutBoth, Member.class, m -> m.getAge() == 610, SyncMode.REFRESH))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(":now")
+                .hasMessageContaining(":auditor");
+        em.refresh(member);
+        assertThat(member.getAge()).isEqualTo(610); // 실행되지 않았다
+    }
+
+    @Test
+    @DisplayName("batch insert 테스트")
+    public void saveAllBatched() {
+        //given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            members.add(new Member("batch" + i, i % 100, teamA));
+        }
+        long before = memberRepository.count();
+
+        //when
+        int savedCount;
+        long statements;
+        try (QueryCountScope scope = QueryCounter.open()) {
+            savedCount = memberRepository.saveAllBatched(members, 100);
+            statements = scope.getCount();
+        }
+
+        //then
+        assertThat(savedCount).isEqualTo(1_000);
+        // batch 마다 insert 문은 한 번만 준비된다 : insert 10번 + 시퀀스 20번 (allocationSize 50)
+        assertThat(statements).isLessThanOrEqualTo(1_000 / 100 + 1_000 / 50 + 2);
+        assertThat(memberRepository.count()).isEqualTo(before + 1_000);
+        assertThat(members).allMatch(m -> m.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse(); // flush + clear 이후 준영속 상태
     }
 
     @Test
@@ -338,6 +567,42 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("N+1 쿼리 수 검증")
+    public void queryCountForLazyTeam() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        memberRepository.save(new Member("lazy1", 10, teamA));
+        memberRepository.save(new Member("lazy2", 10, teamB));
+        em.flush();
+        em.clear();
+
+        //when : fetch join
+        try (QueryCountScope scope = QueryCounter.open()) {
+            List<Member> members = memberRepository.findMemberFetchJoin();
+            members.forEach(m -> m.getTeam().getName());
+
+            //then
+            scope.assertAtMost(1);
+        }
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll(); // 2차 캐시 영향 제거
+
+        //when : 지연 로딩, 회원 조회 2번 + 팀 프록시는 batch fetch(in 쿼리) 1번
+        try (QueryCountScope scope = QueryCounter.open()) {
+            List<Member> members = new ArrayList<>(memberRepository.findByUserName("lazy1"));
+            members.addAll(memberRepository.findByUserName("lazy2"));
+            members.forEach(m -> m.getTeam().getName());
+
+            //then
+            assertThat(scope.getCount()).isEqualTo(3);
+            assertThatThrownBy(() -> scope.assertAtMost(2)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
     @Test
     public void queryHint() {
         //given
@@ -433,6 +698,87 @@ class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("Specification 모양 별 JPQL 캐시 테스트")
+    public void specCached() {
+        //given
+        Team team = new Team("specTeam");
+        em.persist(team);
+        em.persist(new Member("specMember1", 0, team));
+        em.persist(new Member("specMember2", 0, team));
+        em.persist(new Member("specMember1", 0));
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> byName = memberRepository.findAllCached(MemberSpec.userName("specMember1"));
+        List<Member> byNameAndTeam = memberRepository.findAllCached(MemberSpec.userName("specMember1").and(MemberSpec.teamName("specTeam")));
+        List<Member> otherValues = memberRepository.findAllCached(MemberSpec.userName("specMember2").and(MemberSpec.teamName("specTeam")));
+        List<Member> emptyTeamName = memberRepository.findAllCached(MemberSpec.userName("specMember2").and(MemberSpec.teamName(null)));
+
+        //then
+        assertThat(byName).hasSize(2);
+        assertThat(byNameAndTeam).hasSize(1);
+        assertThat(otherValues).extracting(Member::getUserName).containsExactly("specMember2");
+        assertThat(emptyTeamName).hasSize(1); // 조건이 없어지면 userName 조건만 있는 모양을 재사용
+        assertThat(memberRepository.findAll(MemberSpec.userName("specMember1").and(MemberSpec.teamName("specTeam"))))
+                .extracting(Member::getId)
+                .containsExactlyInAnyOrderElementsOf(byNameAndTeam.stream().map(Member::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("MemberSpec 조합마다 findAll(spec)과 findAllCached(spec) 결과가 같다")
+    public void specCachedMatchesCriteria() {
+        //given
+        Team team = new Team("specTeam");
+        em.persist(team);
+        em.persist(new Member("specMember1", 0, team));
+        em.persist(new Member("specMember2", 0, team));
+        em.persist(new Member("specMember1", 0));
+        em.flush();
+        em.clear();
+
+        List<Supplier<CachedSpecification<Member>>> specs = Arrays.asList(
+                CachedSpecification::empty,
+                () -> MemberSpec.userName("specMember1"),
+                () -> MemberSpec.userName("specMember2"),
+                () -> MemberSpec.teamName("specTeam"),
+                () -> MemberSpec.teamName(null));
+
+        List<CachedSpecification<Member>> combinations = new ArrayList<>();
+        for (Supplier<CachedSpecification<Member>> left : specs) {
+            combinations.add(left.get());
+            for (Supplier<CachedSpecification<Member>> right : specs) {
+                combinations.add(left.get().and(right.get()));
+                combinations.add(left.get().or(right.get()));
+            }
+        }
+
+        for (CachedSpecification<Member> spec : combinations) {
+            //when
+            List<Long> criteria = memberRepository.findAll(spec).stream().map(Member::getId).collect(Collectors.toList());
+            List<Long> cached = memberRepository.findAllCached(spec).stream().map(Member::getId).collect(Collectors.toList());
+
+            //then
+            assertThat(cached).as(spec.getShape()).containsExactlyInAnyOrderElementsOf(criteria);
+        }
+    }
+
+    @Test
+    @DisplayName("서로 다른 조인이 같은 별칭을 쓰면 조합할 수 없다")
+    public void specCachedJoinAliasConflict() {
+        //given
+        CachedSpecification<Member> team = MemberSpec.teamName("specTeam");
+        CachedSpecification<Member> sameAlias = CachedSpecification.of("left join {root}.team t", "t.name is null", null,
+                (root, query, criteriaBuilder) -> criteriaBuilder.isNull(root.join("team", JoinType.LEFT).get("name")));
+
+        //when //then
+        assertThat(team.and(MemberSpec.teamName("other")).getShape()).containsOnlyOnce("join"); // 같은 조인은 하나로 합친다
+        assertThatThrownBy(() -> team.and(sameAlias)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CachedSpecification.of("inner join {root}.team e", "e.name = ?", "specTeam",
+                (root, query, criteriaBuilder) -> null)).isInstanceOf(IllegalArgumentException.class); // 루트 별칭
+    }
+
     @Test
     public void queryByExample() {
         Team teamA = new Team("teamA");
@@ -492,6 +838,137 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @DisplayName("필요한 컬럼만 조회하는 동적 Projection 테스트")
+    public void compiledProjection() {
+        //given
+        Team team = new Team("projTeam");
+        em.persist(team);
+        em.persist(new Member("projMember", 7, team));
+        em.persist(new Member("projNoTeam", 8));
+        em.flush();
+        em.clear();
+
+        //when
+        List<UserNameOnly> open = memberRepository.findProjectedByUserName("projMember", UserNameOnly.class);
+        List<UserNameOnlyDto> dto = memberRepository.findProjectedByUserName("projMember", UserNameOnlyDto.class);
+        List<NestedClosedProjection> nested = memberRepository.findProjectedByUserName("projMember", NestedClosedProjection.class);
+        List<NestedClosedProjection> noTeam = memberRepository.findProjectedByUserName("projNoTeam", NestedClosedProjection.class);
+        List<UserNameAge> userNameAge = memberRepository.findProjectedByUserName("projMember", UserNameAge.class);
+        List<MemberSummary> summary = memberRepository.findProjectedByUserName("projMember", MemberSummary.class);
+        List<MemberSummary> noTeamSummary = memberRepository.findProjectedByUserName("projNoTeam", MemberSummary.class);
+
+        //then
+        assertThat(open.get(0).getUserName()).isEqualTo("projMember 7"); // @Value SpEL
+        assertThat(dto.get(0).getUserName()).isEqualTo("projMember");
+        assertThat(nested.get(0).getUserName()).isEqualTo("projMember");
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("projTeam");
+        assertThat(noTeam.get(0).getTeam()).isNull(); // left join
+        assertThat(userNameAge.get(0).getAge()).isEqualTo(7); // #{target.age} 바로 읽기
+        assertThat(userNameAge.get(0).getLabel()).isEqualTo("projMember 7");
+        assertThat(summary.get(0).summary()).isEqualTo("projMember @ projTeam"); // default 메서드
+        assertThat(noTeamSummary.get(0).summary()).isEqualTo("projNoTeam");
+    }
+
+    interface UserNameAge {
+
+        @Value("#{target.age}")
+        Integer getAge();
+
+        @Value("#{target.userName + ' ' + target.age}")
+        String getLabel();
+    }
+
+    interface MemberSummary extends NestedClosedProjection {
+
+        default String summary() {
+            return getTeam() == null ? getUserName() : getUserName() + " @ " + getTeam().getName();
+        }
+    }
+
+    @Test
+    @DisplayName("리포지토리 메서드 별 지표 테스트")
+    public void repositoryMetrics() {
+        //given
+        memberRepository.save(new Member("metricMember", 90));
+        em.flush();
+
+        //when
+        memberRepository.findByUserName("metricMember");
+
+        //then
+        Timer timer = meterRegistry.get("repository.invocations")
+                .tags("repository", "MemberRepository", "method", "findByUserName", "outcome", "success")
+                .timer();
+        DistributionSummary rows = meterRegistry.get("repository.rows")
+                .tags("repository", "MemberRepository", "method", "findByUserName")
+                .summary();
+        DistributionSummary statements = meterRegistry.get("repository.statements")
+                .tags("repository", "MemberRepository", "method", "findByUserName")
+                .summary();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rows.max()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("repository.invocations")
+                .tags("repository", "MemberRepository", "method", "findByUserName")
+                .timers()).hasSize(2); // outcome=success|error 두 개만 등록된다
+    }
+
+    @Test
+    @DisplayName("openCounting은 SQL 수만 세고 SQL 형태별 횟수는 모으지 않는다")
+    public void queryCountingScope() {
+        //given
+        memberRepository.save(new Member("countingMember", 91));
+        em.flush();
+        em.clear();
+
+        //when
+        try (QueryCountScope counting = QueryCounter.openCounting(); QueryCountScope tracking = QueryCounter.open()) {
+            memberRepository.findByUserName("countingMember");
+            memberRepository.findByUserName("countingMember");
+
+            //then
+            assertThat(counting.getCount()).isEqualTo(tracking.getCount());
+            assertThat(counting.getRepeatedStatements(2)).isEmpty();
+            assertThat(tracking.getRepeatedStatements(2)).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("slow query 수집 테스트")
+    public void slowQueryLog() {
+        //given
+        memberRepository.save(new Member("slowMember", 91));
+        em.flush();
+        em.clear();
+        slowQueryLog.clear();
+
+        Duration threshold = properties.getSlowQuery().getThreshold();
+        properties.getSlowQuery().setThreshold(Duration.ZERO); // 모든 SQL 수집
+        try {
+            //when
+            memberRepository.findByUserName("slowMember");
+        } finally {
+            properties.getSlowQuery().setThreshold(threshold);
+        }
+
+        //then
+        SlowQuery slowQuery = slowQueryLog.recent().get(0);
+        assertThat(slowQuery.getCaller()).isEqualTo("MemberRepository.findByUserName");
+        assertThat(slowQuery.getSqlWithValues()).contains("'slowMember'");
+        assertThat(slowQuery.getPlan()).containsIgnoringCase("member");
+    }
+
+    @Test
+    @DisplayName("slow query 보관 건수는 1 이상")
+    public void slowQueryLogInvalidCapacity() {
+        DataJpaProperties invalid = new DataJpaProperties();
+        invalid.getSlowQuery().setCapacity(0);
+
+        assertThatThrownBy(() -> new SlowQueryLog(invalid))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void nativeQuery() {
         Team teamA = new Team("teamA");
@@ -517,4 +994,103 @@ class MemberRepositoryTest {
             System.out.println("m = " + m.getTeamName());
         }*/
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("선언된 쿼리는 인덱스를 탄다")
+    public void queryPlans() {
+        //when
+        List<QueryPlan> plans = queryPlanVerifier.verify();
+
+        //then
+        assertThat(plans).extracting("name")
+                         .contains("Member.findByUserName", "MemberRepository.findPagingByAge", "MemberRepository.findByNativeQuery",
+                                   "MemberRepositoryCustom.findByNames", "MemberRepositoryCustom.findLockByUserName",
+                                   "MemberRepositoryCustom.findMemberDtos"); // FragmentQueries로 등록한 구현 조각 쿼리
+        assertThat(plans).allMatch(plan -> plan.getError() == null, "explain 실패 없음");
+        assertThat(plans).noneMatch(QueryPlan::isTableScan);
+        assertThat(plans).filteredOn("name", "Member.findByUserName")
+                         .extracting("plan")
+                         .allMatch(plan -> ((String) plan).contains("IDX_MEMBER_USER_NAME_TEAM_ID"));
+    }
+
+    @Test
+    @DisplayName("네이티브 쿼리 파라미터 변환은 따옴표 안을 건드리지 않는다")
+    public void nativeQueryParameters() {
+        assertThat(QueryPlanVerifier.toJdbcParameters("select * from member where username = ?1 and age > :age"))
+                .isEqualTo("select * from member where username = ? and age > ?");
+        assertThat(QueryPlanVerifier.toJdbcParameters("select * from member where username = ':name?1' and \"member_id\" = :id"))
+                .isEqualTo("select * from member where username = ':name?1' and \"member_id\" = ?");
+        assertThat(QueryPlanVerifier.toJdbcParameters("select age::varchar from member where age = :age"))
+                .isEqualTo("select age::varchar from member where age = ?");
+    }
+
+    @Test
+    @DisplayName("DTO 페이징은 영속성 컨텍스트를 사용하지 않는다")
+    public void findMemberDtos() {
+        //given
+        Team team = teamRepository.save(new Team("dtoTeam"));
+        Member withTeam = memberRepository.save(new Member("dtoMember1", 31, team));
+        Member withoutTeam = memberRepository.save(new Member("dtoMember2", 31));
+        em.flush();
+        em.clear();
+
+        //when
+        Page<MemberDto> page = memberRepository.findMemberDtos(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")), CountStrategy.EXACT);
+
+        //then
+        assertThat(page.getContent()).extracting("id", "userName", "teamName")
+                                     .containsExactly(tuple(withoutTeam.getId(), "dtoMember2", null),
+                                             tuple(withTeam.getId(), "dtoMember1", "dtoTeam"));
+        assertThat(page.getTotalElements()).isEqualTo(memberRepository.count());
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("DTO 페이징은 허용하지 않은 속성으로 정렬할 수 없다")
+    public void findMemberDtosUnsupportedSort() {
+        //when //then : 예외 변환 없이 그대로 (컨트롤러가 이 예외만 400으로)
+        assertThatThrownBy(() -> memberRepository.findMemberDtos(PageRequest.of(0, 2, Sort.by("age")), CountStrategy.EXACT))
+                .isInstanceOf(UnsupportedSortException.class)
+                .hasMessageContaining("age");
+    }
+
+    @Test
+    @DisplayName("Stream 조회는 읽은 엔티티를 바로 준영속으로 만든다")
+    public void streamMemberCustom() {
+        //given
+        memberRepository.save(new Member("streamMember1", 10));
+        memberRepository.save(new Member("streamMember2", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> result;
+        try (Stream<Member> members = memberRepository.streamMemberCustom(100)) {
+            result = members.filter(m -> m.getUserName().startsWith("streamMember")).collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(result).extracting("userName").containsExactlyInAnyOrder("streamMember1", "streamMember2");
+        assertThat(result).noneMatch(em::contains);
+    }
+
+    @Test
+    @DisplayName("MemberQueryRepository Stream 조회도 읽은 엔티티를 바로 준영속으로 만든다")
+    public void streamAllMembers() {
+        //given
+        memberRepository.save(new Member("queryStream1", 10));
+        memberRepository.save(new Member("queryStream2", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> result;
+        try (Stream<Member> members = memberQueryRepository.streamAllMembers(100)) {
+            result = members.filter(m -> m.getUserName() != null && m.getUserName().startsWith("queryStream")).collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(result).extracting("userName").containsExactlyInAnyOrder("queryStream1", "queryStream2");
+        assertThat(result).noneMatch(em::contains);
+    }
+}
@@ -0,0 +1,250 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCountScope;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.repository.support.CountStrategy;
+import study.datajpa.repository.support.LockTimeout;
+import study.datajpa.repository.support.PageCountSupport;
+import study.datajpa.transaction.BatchClaimProcessor;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired BatchClaimProcessor batchClaimProcessor;
+    @Autowired PageCountSupport pageCountSupport;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("2차 캐시 적용 및 벌크 연산 후 무효화 테스트")
+    public void secondLevelCache() {
+        //given
+        Cache cache = emf.getCache();
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        Member member = memberRepository.save(new Member("cacheMember", 500, team));
+        cache.evictAll();
+        try {
+            //when
+            teamRepository.findById(team.getId());
+            memberRepository.findById(member.getId());
+
+            //then
+            assertThat(cache.contains(Team.class, team.getId())).isTrue();
+            assertThat(cache.contains(Member.class, member.getId())).isTrue();
+
+            //when : 벌크 연산
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(500));
+
+            //then
+            assertThat(cache.contains(Member.class, member.getId())).isFalse();
+            assertThat(cache.contains(Team.class, team.getId())).isTrue();
+            assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(501);
+        } finally {
+            // 커밋된 데이터가 다른 테스트(count 기반)에 남지 않게
+            memberRepository.deleteById(member.getId());
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("ESTIMATED count는 커밋된 insert/delete로 증감한다")
+    public void estimatedCount() {
+        //given
+        pageCountSupport.evict(Member.class);
+        PageRequest page = PageRequest.of(0, 1);
+        long exact = memberRepository.findAll(page, CountStrategy.ESTIMATED).getTotalElements(); // 첫 조회는 count 쿼리
+        assertThat(exact).isEqualTo(memberRepository.count());
+
+        //when
+        Member member = memberRepository.save(new Member("estimatedMember", 901));
+
+        //then : count 쿼리 없이 컨텐츠 조회 1번
+        try (QueryCountScope scope = QueryCounter.open()) {
+            assertThat(memberRepository.findAll(page, CountStrategy.ESTIMATED).getTotalElements()).isEqualTo(exact + 1);
+            assertThat(scope.getCount()).isEqualTo(1);
+        }
+
+        //when
+        memberRepository.deleteById(member.getId());
+
+        //then
+        assertThat(memberRepository.findAll(page, CountStrategy.ESTIMATED).getTotalElements()).isEqualTo(exact);
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("팀 + 회원 페이징은 쿼리 2번")
+    public void findTeamsWithMembers() {
+        //given
+        for (int i = 1; i <= 3; i++) {
+            Team team = teamRepository.save(new Team("batchTeam" + i));
+            memberRepository.save(new Member("batchMember" + i + "-1", 10, team));
+            memberRepository.save(new Member("batchMember" + i + "-2", 10, team));
+        }
+        em.flush();
+        em.clear();
+        emf.getCache().evictAll();
+
+        //when
+        try (QueryCountScope scope = QueryCounter.open()) {
+            Slice<Team> teams = teamRepository.findTeamsWithMembers(PageRequest.of(0, 2, Sort.by("name")));
+            teams.forEach(t -> t.getMembers().size());
+
+            //then
+            assertThat(teams.getContent()).extracting("name").containsExactly("batchTeam1", "batchTeam2");
+            assertThat(teams.getContent()).allMatch(t -> t.getMembers().size() == 2);
+            assertThat(teams.hasNext()).isTrue();
+            assertThat(scope.getCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("같은 팀에 동시에 회원을 추가해도 팀 version 충돌이 없다")
+    public void concurrentMembersSameTeam() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("concurrentTeam"));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CountDownLatch loaded = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Long> memberIds = Collections.synchronizedList(new ArrayList<>());
+        try {
+            //when : 두 트랜잭션이 같은 version의 팀을 읽은 뒤 각자 회원을 추가
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String userName = "concurrentMember" + i;
+                futures.add(executor.submit(() -> tx.executeWithoutResult(status -> {
+                    Team found = teamRepository.findById(team.getId()).get();
+                    found.getMembers().size(); // 컬렉션 초기화
+                    loaded.countDown();
+                    try {
+                        assertThat(loaded.await(10, TimeUnit.SECONDS)).isTrue();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    Member member = new Member(userName, 802);
+                    member.changeTeam(found);
+                    memberIds.add(memberRepository.save(member).getId());
+                })));
+            }
+
+            //then : 낙관적 락 예외 없이 둘 다 커밋
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            Team result = teamRepository.findById(team.getId()).get();
+            assertThat(result.getVersion()).isEqualTo(team.getVersion());
+            assertThat(memberIds).hasSize(2);
+        } finally {
+            executor.shutdownNow();
+            memberIds.forEach(memberRepository::deleteById);
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("잠금 조회는 트랜잭션 안에서만 호출할 수 있다")
+    public void lockRequiresTransaction() {
+        Specification<Member> pending = (root, query, cb) -> cb.equal(root.get("age"), 990);
+
+        assertThatThrownBy(() -> memberRepository.findLockByUserName("lockMember"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThatThrownBy(() -> memberRepository.findLockByUserName("lockMember", LockTimeout.NO_WAIT))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThatThrownBy(() -> memberRepository.claimBatch(pending, 5))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    @DisplayName("작업 큐 : 워커들은 겹치지 않는 묶음을 가져간다 (skip locked)")
+    public void claimBatch() throws Exception {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            members.add(memberRepository.save(new Member("claimMember" + i, 990)));
+        }
+        Specification<Member> pending = (root, query, cb) -> cb.equal(root.get("age"), 990);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            //when : 다른 워커가 5명을 잡고 있는 동안
+            CountDownLatch claimed = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<List<Long>> holder = executor.submit(() -> tx.execute(status -> {
+                List<Long> ids = memberRepository.claimBatch(pending, 5).stream().map(Member::getId).collect(Collectors.toList());
+                claimed.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ids;
+            }));
+            assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+            List<Long> mine = tx.execute(status -> memberRepository.claimBatch(pending, 5).stream().map(Member::getId).collect(Collectors.toList()));
+            release.countDown();
+
+            //then : 잠긴 회원은 건너뛰고 다음 5명
+            List<Long> theirs = holder.get(10, TimeUnit.SECONDS);
+            assertThat(theirs).hasSize(5);
+            assertThat(mine).hasSize(5).doesNotContainAnyElementsOf(theirs);
+
+            //when : 워커 4개가 3명씩 처리
+            List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                workers.add(executor.submit(() -> batchClaimProcessor.drain(n -> memberRepository.claimBatch(pending, n), 3,
+                        batch -> batch.forEach(m -> {
+                            processed.add(m.getId());
+                            m.setAge(991); // 처리 완료
+                        }))));
+            }
+            int total = 0;
+            for (Future<Integer> worker : workers) {
+                total += worker.get(30, TimeUnit.SECONDS);
+            }
+
+            //then : 모든 회원을 한 번씩만 처리
+            assertThat(total).isEqualTo(20);
+            assertThat(processed).hasSize(20)
+                                 .doesNotHaveDuplicates()
+                                 .containsExactlyInAnyOrderElementsOf(members.stream().map(Member::getId).collect(Collectors.toList()));
+        } finally {
+            executor.shutdown();
+            memberRepository.deleteAllById(members.stream().map(Member::getId).collect(Collectors.toList()));
+        }
+    }
+}